@@ -0,0 +1,54 @@
+package ch.njol.skript.lang;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the scanning done by the {@link SkriptParser} for every statement,
+ * i.e. skipping strings, variables and parentheses and splitting lists.
+ * Matching statements against registered syntax needs a running server and is not covered.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SkriptParserBenchmark {
+
+	@Param({
+		"set {_list::%player's uuid%::*} to (1, 2 and 3) if {_x} is set",
+		"send \"Welcome, %player% (%{stats::%player's uuid%::joins}% joins)\" to player and console",
+		"add the result of foo(bar(1, 2), \"a, b\" and {_c::*}) to {list::*}"
+	})
+	public String statement;
+
+	@Benchmark
+	public int next() {
+		int count = 0;
+		for (int i = 0; i >= 0 && i < statement.length(); i = SkriptParser.next(statement, i, ParseContext.DEFAULT))
+			count++;
+		return count;
+	}
+
+	@Benchmark
+	public int nextOccurrence() {
+		return SkriptParser.nextOccurrence(statement, " to ", 0, ParseContext.DEFAULT, false);
+	}
+
+	@Benchmark
+	public int validateLine() {
+		return SkriptParser.validateLine(statement) ? 1 : 0;
+	}
+
+}
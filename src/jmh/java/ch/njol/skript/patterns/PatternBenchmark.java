@@ -0,0 +1,64 @@
+package ch.njol.skript.patterns;
+
+import org.jetbrains.annotations.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks compiling and matching patterns.
+ * Type elements need registered class infos, so only patterns without types are used.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatternBenchmark {
+
+	@Param({
+		"[all [of]] [the] (player|console) ([is] online|[has] (joined|left))",
+		"(0¦stop|1¦cancel|2¦uncancel) [the] event [(now|:immediately)]",
+		"[the] <[0-9]+> (tick|second|minute|hour)[s] [later|ago]"
+	})
+	public String pattern;
+
+	@Param({"matching", "mismatching"})
+	public String input;
+
+	private SkriptPattern compiled;
+
+	private String expr;
+
+	@Setup
+	public void setup() {
+		compiled = PatternCompiler.compile(pattern);
+		expr = switch (pattern.charAt(1)) {
+			case 'a' -> input.equals("matching") ? "all of the player has joined" : "all of the player has joined the game";
+			case '0' -> input.equals("matching") ? "uncancel the event immediately" : "uncancel the events";
+			default -> input.equals("matching") ? "the 20 seconds later" : "the 20 second early";
+		};
+	}
+
+	@Benchmark
+	public SkriptPattern compile() {
+		return PatternCompiler.compile(pattern);
+	}
+
+	@Benchmark
+	public @Nullable MatchResult match() {
+		return compiled.match(expr);
+	}
+
+}
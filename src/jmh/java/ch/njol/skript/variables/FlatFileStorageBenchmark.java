@@ -0,0 +1,118 @@
+package ch.njol.skript.variables;
+
+import ch.njol.skript.variables.FlatFileStorage.LoadedChunk;
+import ch.njol.skript.variables.FlatFileStorage.Segment;
+import ch.njol.skript.variables.FlatFileStorage.SegmentedWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks reading and writing CSV variable files, without deserializing the values
+ * as that needs the registered class infos.
+ * Each segment of the file is a list variable with {@link #SEGMENT_SIZE} elements.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FlatFileStorageBenchmark {
+
+	private static final int SEGMENT_SIZE = 100;
+
+	@Param({"100000"})
+	public int variables;
+
+	private Path file, target;
+
+	private final List<Segment> segments = new ArrayList<>();
+
+	@Setup
+	public void setup() throws IOException {
+		file = Files.createTempFile("variables", ".csv");
+		target = Files.createTempFile("variables", ".csv");
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			SegmentedWriter writer = new SegmentedWriter(channel, null);
+			writeVariables(writer);
+			writer.finish();
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+		Files.deleteIfExists(target);
+	}
+
+	/**
+	 * Writes all variables, one list per segment, and records the segments.
+	 */
+	private void writeVariables(SegmentedWriter writer) {
+		segments.clear();
+		ByteBuffer value = ByteBuffer.allocate(Long.BYTES);
+		for (int i = 0; i < variables; i += SEGMENT_SIZE) {
+			long start = writer.getPosition();
+			for (int j = i; j < Math.min(i + SEGMENT_SIZE, variables); j++) {
+				value.clear();
+				value.putLong(j);
+				FlatFileStorage.writeCSV(writer.printWriter, "list" + i + "::" + j, "long", FlatFileStorage.encode(value.array()));
+			}
+			segments.add(new Segment(start, writer.getPosition() - start));
+		}
+	}
+
+	@Benchmark
+	public int load() throws IOException {
+		int count = 0;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long[] bounds = FlatFileStorage.splitIntoChunks(channel, Runtime.getRuntime().availableProcessors());
+			for (int i = 0; i < bounds.length - 1; i++) {
+				LoadedChunk chunk = FlatFileStorage.loadChunk(channel, bounds[i], bounds[i + 1]);
+				count += chunk.variables.size();
+			}
+		}
+		return count;
+	}
+
+	@Benchmark
+	public void save() throws IOException {
+		try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			SegmentedWriter writer = new SegmentedWriter(channel, null);
+			writeVariables(writer);
+			writer.finish();
+		}
+	}
+
+	@Benchmark
+	public void saveUnchanged() throws IOException {
+		try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+			 FileChannel previous = FileChannel.open(file, StandardOpenOption.READ)) {
+			SegmentedWriter writer = new SegmentedWriter(channel, previous);
+			for (Segment segment : segments)
+				writer.copy(segment);
+			writer.finish();
+		}
+	}
+
+}
@@ -0,0 +1,68 @@
+package ch.njol.skript.variables;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks sorting list indices with {@link VariablesMap#VARIABLE_NAME_COMPARATOR},
+ * with numbers, numbers of different lengths and UUIDs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VariableNameComparatorBenchmark {
+
+	private static final int SIZE = 1000;
+
+	private final String[] numbers = new String[SIZE];
+	private final String[] mixed = new String[SIZE];
+	private final String[] uuids = new String[SIZE];
+
+	@Setup
+	public void setup() {
+		Random random = new Random(0);
+		for (int i = 0; i < SIZE; i++) {
+			numbers[i] = "" + random.nextInt(SIZE);
+			mixed[i] = random.nextBoolean() ? "" + random.nextLong() : "item" + random.nextInt(100);
+			uuids[i] = new UUID(random.nextLong(), random.nextLong()).toString();
+		}
+	}
+
+	@Benchmark
+	public String[] sortNumbers() {
+		String[] copy = numbers.clone();
+		Arrays.sort(copy, VariablesMap.VARIABLE_NAME_COMPARATOR);
+		return copy;
+	}
+
+	@Benchmark
+	public String[] sortMixed() {
+		String[] copy = mixed.clone();
+		Arrays.sort(copy, VariablesMap.VARIABLE_NAME_COMPARATOR);
+		return copy;
+	}
+
+	@Benchmark
+	public String[] sortUUIDs() {
+		String[] copy = uuids.clone();
+		Arrays.sort(copy, VariablesMap.VARIABLE_NAME_COMPARATOR);
+		return copy;
+	}
+
+}
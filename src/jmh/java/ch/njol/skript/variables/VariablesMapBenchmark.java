@@ -0,0 +1,86 @@
+package ch.njol.skript.variables;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks getting and setting single and list variables in a {@link VariablesMap},
+ * both for the global variables (concurrent) and for local variables.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VariablesMapBenchmark {
+
+	@Param({"true", "false"})
+	public boolean concurrent;
+
+	@Param({"1000"})
+	public int listSize;
+
+	private VariablesMap map;
+
+	private int index;
+
+	@Setup
+	public void setup() {
+		map = concurrent ? VariablesMap.concurrent() : new VariablesMap();
+		for (int i = 0; i < listSize; i++) {
+			map.setVariable("list::" + i, i);
+			map.setVariable("players::" + i + "::kills", i);
+			map.setVariable("single" + i, i);
+		}
+	}
+
+	private int nextIndex() {
+		index = (index + 1) % listSize;
+		return index;
+	}
+
+	@Benchmark
+	public Object getSingle() {
+		return map.getVariable("single" + nextIndex());
+	}
+
+	@Benchmark
+	public Object getListElement() {
+		return map.getVariable("players::" + nextIndex() + "::kills");
+	}
+
+	@Benchmark
+	public Object getList() {
+		return map.getVariable("list::*");
+	}
+
+	@Benchmark
+	public void setSingle() {
+		int i = nextIndex();
+		map.setVariable("single" + i, i);
+	}
+
+	@Benchmark
+	public void setListElement() {
+		int i = nextIndex();
+		map.setVariable("players::" + i + "::kills", i);
+	}
+
+	@Benchmark
+	public VariablesMap copy() {
+		return map.copy();
+	}
+
+}
@@ -0,0 +1,84 @@
+package ch.njol.yggdrasil;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks serializing and deserializing an object graph with {@link Yggdrasil}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class YggdrasilBenchmark {
+
+	@YggdrasilID("BenchmarkValue")
+	public static class Value implements YggdrasilSerializable {
+
+		private int number;
+		private double[] position = new double[3];
+		private String name = "";
+		private UUID owner = new UUID(0, 0);
+		private ArrayList<String> tags = new ArrayList<>();
+		private HashMap<String, Long> counters = new HashMap<>();
+
+		public Value() {}
+
+	}
+
+	private final Yggdrasil yggdrasil = new Yggdrasil();
+
+	private Value value;
+
+	private byte[] serialized;
+
+	@Setup
+	public void setup() throws IOException {
+		yggdrasil.registerSingleClass(Value.class);
+		value = new Value();
+		value.number = 42;
+		value.position = new double[] {1.5, 64, -20.25};
+		value.name = "benchmark";
+		value.owner = UUID.randomUUID();
+		for (int i = 0; i < 20; i++) {
+			value.tags.add("tag" + i);
+			value.counters.put("counter" + i, (long) i);
+		}
+		serialized = serialize();
+	}
+
+	@Benchmark
+	public byte[] serialize() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (YggdrasilOutputStream out = yggdrasil.newOutputStream(bytes)) {
+			out.writeObject(value);
+		}
+		return bytes.toByteArray();
+	}
+
+	@Benchmark
+	public Value deserialize() throws IOException {
+		try (YggdrasilInputStream in = yggdrasil.newInputStream(new ByteArrayInputStream(serialized))) {
+			return in.readObject(Value.class);
+		}
+	}
+
+}
@@ -466,17 +466,18 @@ public class ScriptLoader {
 
 		ScriptInfo scriptInfo = new ScriptInfo();
 
-		List<LoadingScriptInfo> scripts = new ArrayList<>();
+		// each script is stored at the index of its config, as scripts may be parsed in parallel
+		LoadingScriptInfo[] loadingScripts = new LoadingScriptInfo[configs.size()];
 
 		List<CompletableFuture<Void>> scriptInfoFutures = new ArrayList<>();
-		for (Config config : configs) {
+		for (int i = 0; i < configs.size(); i++) {
+			Config config = configs.get(i);
 			if (config == null)
 				throw new NullPointerException();
 
+			int index = i;
 			CompletableFuture<Void> future = makeFuture(() -> {
-				LoadingScriptInfo info = loadScript(config);
-				scripts.add(info);
-				scriptInfo.add(new ScriptInfo(1, info.structures.size()));
+				loadingScripts[index] = loadScript(config);
 				return null;
 			}, openCloseable);
 
@@ -485,10 +486,15 @@ public class ScriptLoader {
 
 		return CompletableFuture.allOf(scriptInfoFutures.toArray(new CompletableFuture[0]))
 			.thenApply(unused -> {
-				// TODO in the future this won't work when parallel loading is fixed
-				// It does now though so let's avoid calling getParser() a bunch.
+				// The preLoad and postLoad stages are run on this thread, only parts of the load stage may run on other threads.
 				ParserInstance parser = getParser();
 
+				List<LoadingScriptInfo> scripts = new ArrayList<>(loadingScripts.length);
+				for (LoadingScriptInfo info : loadingScripts) {
+					scripts.add(info);
+					scriptInfo.add(new ScriptInfo(1, info.structures.size()));
+				}
+
 				try {
 					openCloseable.open();
 
@@ -526,34 +532,21 @@ public class ScriptLoader {
 					});
 					parser.setInactive();
 
-					// TODO in the future, Structure#load/Structure#postLoad should be split across multiple threads if parallel loading is enabled.
-					// However, this is not possible right now as reworks in multiple areas will be needed.
-					// For example, the "Commands" class still uses a static list for currentArguments that is cleared between loads.
-					// Until these reworks happen, limiting main loading to asynchronous (not parallel) is the only choice we have.
-
 					// loading
-					pairs.removeIf(pair -> {
-						LoadingScriptInfo loadingInfo = pair.getFirst();
-						Structure structure = pair.getSecond();
-
-						parser.setActive(loadingInfo.script);
-						parser.setCurrentStructure(structure);
-						parser.setNode(loadingInfo.nodeMap.get(structure));
-
-						try {
-							if (!structure.load()) {
-								loadingInfo.structures.remove(structure);
-								return true;
-							}
-						} catch (Exception e) {
-							//noinspection ThrowableNotThrown
-							Skript.exception(e, "An error occurred while trying to load a Structure.");
-							loadingInfo.structures.remove(structure);
-							return true;
-						}
-						return false;
-					});
-					parser.setInactive();
+					// Structures with the same priority are loaded together, in parallel for different scripts if possible,
+					// such that a Structure is only loaded once all Structures with a higher priority have been loaded.
+					Set<Structure> failed = ConcurrentHashMap.newKeySet();
+					int start = 0;
+					while (start < pairs.size()) {
+						Structure.Priority priority = pairs.get(start).getSecond().getPriority();
+						int end = start + 1;
+						while (end < pairs.size() && pairs.get(end).getSecond().getPriority().compareTo(priority) == 0)
+							end++;
+						loadStructures(pairs.subList(start, end), failed, openCloseable);
+						start = end;
+					}
+					if (!failed.isEmpty())
+						pairs.removeIf(pair -> failed.contains(pair.getSecond()));
 
 					// post-loading
 					pairs.removeIf(pair -> {
@@ -607,6 +600,135 @@ public class ScriptLoader {
 			});
 	}
 
+	/**
+	 * Loads Structures with the same priority.
+	 * If parallel loading is enabled, the Structures of each script that {@link Structure#canLoadInParallel() can load in parallel}
+	 *  are loaded on the async loaders, while the Structures of a single script are always loaded in order.
+	 * The other Structures are then loaded on the current thread.
+	 * All Structures are loaded on the current thread if {@link ParserInstance.ScriptActivityChangeEvent}s
+	 *  are registered for all scripts, as they would be called from multiple threads at once.
+	 *
+	 * @param pairs The Structures to load, with the scripts they belong to.
+	 * @param failed The set to add the Structures that failed to load to.
+	 * @param openCloseable The {@link OpenCloseable} that is opened on the threads that load the Structures,
+	 *  it must already be open on the current thread.
+	 */
+	private static void loadStructures(
+		List<NonNullPair<LoadingScriptInfo, Structure>> pairs, Set<Structure> failed, OpenCloseable openCloseable
+	) {
+		Map<LoadingScriptInfo, List<Structure>> parallel = new LinkedHashMap<>();
+		List<NonNullPair<LoadingScriptInfo, Structure>> serial = new ArrayList<>();
+		for (NonNullPair<LoadingScriptInfo, Structure> pair : pairs) {
+			if (pair.getSecond().canLoadInParallel()) {
+				parallel.computeIfAbsent(pair.getFirst(), info -> new ArrayList<>()).add(pair.getSecond());
+			} else {
+				serial.add(pair);
+			}
+		}
+
+		// Nothing to gain from other threads with less than two scripts,
+		//  and listeners for the activity changes of all scripts would be called concurrently
+		if (!isParallel() || parallel.size() < 2
+				|| !eventRegistry().events(ParserInstance.ScriptActivityChangeEvent.class).isEmpty()) {
+			serial = pairs;
+		} else {
+			List<Runnable> tasks = new ArrayList<>(parallel.size());
+			parallel.forEach((info, structures) -> tasks.add(() -> {
+				try {
+					for (Structure structure : structures) {
+						if (!loadStructure(info, structure))
+							failed.add(structure);
+					}
+				} finally {
+					getParser().setInactive();
+				}
+			}));
+			runInParallel(tasks, openCloseable);
+		}
+
+		for (NonNullPair<LoadingScriptInfo, Structure> pair : serial) {
+			if (!loadStructure(pair.getFirst(), pair.getSecond()))
+				failed.add(pair.getSecond());
+		}
+		getParser().setInactive();
+	}
+
+	/**
+	 * Loads a Structure with the {@link ParserInstance} of the current thread,
+	 * removing it from its script if it fails to load.
+	 *
+	 * @return Whether the Structure was loaded.
+	 */
+	private static boolean loadStructure(LoadingScriptInfo loadingInfo, Structure structure) {
+		ParserInstance parser = getParser();
+		parser.setActive(loadingInfo.script);
+		parser.setCurrentStructure(structure);
+		parser.setNode(loadingInfo.nodeMap.get(structure));
+
+		try {
+			if (structure.load())
+				return true;
+		} catch (Exception e) {
+			//noinspection ThrowableNotThrown
+			Skript.exception(e, "An error occurred while trying to load a Structure.");
+		}
+		loadingInfo.structures.remove(structure);
+		return false;
+	}
+
+	/**
+	 * Runs tasks on the async loaders and the current thread, and waits until all tasks are done.
+	 * The current thread takes tasks as well, such that the tasks are run
+	 *  even if all async loaders are busy, e.g. if the current thread is an async loader itself.
+	 *
+	 * @param tasks The tasks to run, which should not throw any exceptions.
+	 * @param openCloseable The {@link OpenCloseable} that is opened on the async loaders while they run tasks.
+	 */
+	private static void runInParallel(List<Runnable> tasks, OpenCloseable openCloseable) {
+		Queue<Runnable> queue = new ConcurrentLinkedQueue<>(tasks);
+		CountDownLatch done = new CountDownLatch(tasks.size());
+		Runnable worker = () -> {
+			Runnable task;
+			while ((task = queue.poll()) != null) {
+				try {
+					task.run();
+				} catch (Throwable t) {
+					//noinspection ThrowableNotThrown
+					Skript.exception(t);
+				} finally {
+					done.countDown();
+				}
+			}
+		};
+
+		int helpers = Math.min(asyncLoaderSize, tasks.size() - 1);
+		for (int i = 0; i < helpers; i++) {
+			loadQueue.add(() -> {
+				if (queue.isEmpty())
+					return;
+				openCloseable.open();
+				try {
+					worker.run();
+				} finally {
+					openCloseable.close();
+				}
+			});
+		}
+
+		worker.run();
+		boolean interrupted = false;
+		while (true) {
+			try {
+				done.await();
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+
 	private static class LoadingScriptInfo {
 
 		public final Script script;
@@ -1049,6 +1171,7 @@ public class ScriptLoader {
 			} else {
 				continue;
 			}
+			item.setLineNumber(subNode.getLine());
 
 			if (executionStops
 					&& !SkriptConfig.disableUnreachableCodeWarnings.value()
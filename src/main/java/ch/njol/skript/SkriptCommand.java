@@ -16,9 +16,13 @@ import ch.njol.skript.test.runner.SkriptTestEvent;
 import ch.njol.skript.test.runner.TestMode;
 import ch.njol.skript.test.runner.TestTracker;
 import ch.njol.skript.test.utils.TestResults;
+import ch.njol.skript.timings.TriggerProfiler;
+import ch.njol.skript.timings.TriggerProfiler.ItemTimings;
+import ch.njol.skript.timings.TriggerProfiler.Profile;
 import ch.njol.skript.util.ExceptionUtils;
 import ch.njol.skript.util.FileUtils;
 import ch.njol.skript.util.SkriptColor;
+import ch.njol.skript.util.TickScheduler;
 import ch.njol.skript.util.Utils;
 import ch.njol.util.OpenCloseable;
 import ch.njol.util.StringUtils;
@@ -36,6 +40,7 @@ import java.io.File;
 import java.io.FileFilter;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
@@ -63,6 +68,10 @@ public class SkriptCommand implements CommandExecutor {
 			).add(new CommandHelp("update", SkriptColor.DARK_RED)
 				.add("check")
 				.add("changes")
+			).add(new CommandHelp("profile", SkriptColor.DARK_RED)
+				.add("start")
+				.add("stop")
+				.add("dump")
 			)
 			.add("list")
 			.add("show")
@@ -343,6 +352,32 @@ public class SkriptCommand implements CommandExecutor {
 				} else if (args[1].equalsIgnoreCase("changes")) {
 					updater.changesCheck(sender);
 				}
+			} else if (args[0].equalsIgnoreCase("profile")) {
+				if (args[1].equalsIgnoreCase("start")) {
+					if (TriggerProfiler.start()) {
+						info(sender, "profile.started");
+					} else {
+						error(sender, "profile.already started");
+					}
+				} else if (args[1].equalsIgnoreCase("stop")) {
+					Profile profile = TriggerProfiler.stop();
+					if (profile == null) {
+						error(sender, "profile.not started");
+						return true;
+					}
+					info(sender, "profile.stopped", formatNanos(profile.getDuration()));
+					info(sender, "profile.scheduler", TickScheduler.getPendingCount(),
+						formatMillis(TickScheduler.getAverageLateness()), formatMillis(TickScheduler.getMaximumLateness()));
+					showProfile(sender, profile);
+					dumpProfile(sender, profile);
+				} else if (args[1].equalsIgnoreCase("dump")) {
+					Profile profile = TriggerProfiler.getLastProfile();
+					if (profile == null) {
+						error(sender, "profile.no profile");
+						return true;
+					}
+					dumpProfile(sender, profile);
+				}
 			} else if (args[0].equalsIgnoreCase("info")) {
 				info(sender, "info.aliases");
 				info(sender, "info.documentation");
@@ -480,6 +515,43 @@ public class SkriptCommand implements CommandExecutor {
 		return true;
 	}
 
+	/**
+	 * The amount of items with the highest self time to show when a profile is stopped.
+	 */
+	private static final int PROFILE_SUMMARY_SIZE = 10;
+
+	private static void showProfile(CommandSender sender, Profile profile) {
+		List<ItemTimings> timings = profile.getTimings();
+		if (timings.isEmpty()) {
+			info(sender, "profile.empty");
+			return;
+		}
+		info(sender, "profile.header");
+		for (ItemTimings itemTimings : timings.subList(0, Math.min(PROFILE_SUMMARY_SIZE, timings.size()))) {
+			info(sender, "profile.element", itemTimings.getLocation(), formatNanos(itemTimings.getSelfNanos()),
+				formatNanos(itemTimings.getTotalNanos()), itemTimings.getCalls(), itemTimings.getItem().toString(null, false));
+		}
+	}
+
+	private static void dumpProfile(CommandSender sender, Profile profile) {
+		String fileName = "profile-" + new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss").format(new Date()) + ".txt";
+		File file = new File(new File(Skript.getInstance().getDataFolder(), "profiles"), fileName);
+		try {
+			profile.writeCollapsedStacks(file.toPath());
+			info(sender, "profile.dumped", file.getPath());
+		} catch (IOException e) {
+			error(sender, "profile.io error", file.getPath(), ExceptionUtils.toString(e));
+		}
+	}
+
+	private static String formatNanos(long nanos) {
+		return formatMillis(nanos / 1_000_000.0);
+	}
+
+	private static String formatMillis(double millis) {
+		return String.format(Locale.ENGLISH, "%.2fms", millis);
+	}
+
 	private static final ArgsMessage m_invalid_script = new ArgsMessage(CONFIG_NODE + ".invalid script");
 	private static final ArgsMessage m_invalid_folder = new ArgsMessage(CONFIG_NODE + ".invalid folder");
 
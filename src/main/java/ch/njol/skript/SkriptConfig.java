@@ -11,6 +11,7 @@ import ch.njol.skript.hooks.regions.PreciousStonesHook;
 import ch.njol.skript.hooks.regions.ResidenceHook;
 import ch.njol.skript.hooks.regions.WorldGuardHook;
 import ch.njol.skript.lang.function.Function;
+import ch.njol.skript.lang.function.FunctionCache;
 import ch.njol.skript.localization.Language;
 import ch.njol.skript.log.SkriptLogger;
 import ch.njol.skript.log.Verbosity;
@@ -307,6 +308,27 @@ public class SkriptConfig {
 			.optional(true)
 			.setter(t -> Function.executeWithNulls = t);
 
+	public static final Option<Integer> functionCacheSize = new Option<>("function cache size", 1000)
+			.optional(true)
+			.setter(FunctionCache::setConfiguredMaximumSize);
+
+	public static final Option<Timespan> functionCacheDuration = new Option<>("function cache duration", new Timespan(Timespan.TimePeriod.MINUTE, 1))
+			.optional(true);
+
+	/**
+	 * Whether triggers of asynchronous events that must run on the main thread are queued instead of
+	 * blocking the thread of the event until they have run. See {@link SkriptEventHandler}.
+	 */
+	public static final Option<Boolean> queueAsyncEventTriggers = new Option<>("queue async event triggers", false)
+			.optional(true);
+
+	/**
+	 * Whether periodical events with the same period are started at different ticks,
+	 * instead of all running at the same tick.
+	 */
+	public static final Option<Boolean> spreadPeriodicalEvents = new Option<>("spread periodical events", false)
+			.optional(true);
+
 	public final static Option<Boolean> disableHookVault = new Option<>("disable hooks.vault", false)
 		.optional(true)
 		.setter(value -> {
@@ -3,6 +3,7 @@ package ch.njol.skript;
 import ch.njol.skript.lang.SkriptEvent;
 import ch.njol.skript.lang.Trigger;
 import ch.njol.skript.timings.SkriptTimings;
+import ch.njol.skript.util.SyncTaskQueue;
 import ch.njol.skript.util.Task;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
@@ -21,6 +22,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -70,6 +72,20 @@ public final class SkriptEventHandler {
 	 */
 	private static final Multimap<Class<? extends Event>, Trigger> triggers = ArrayListMultimap.create();
 
+	/**
+	 * An empty dispatch entry, shared by all event classes that have no Triggers at any priority.
+	 */
+	private static final Trigger[][] NO_TRIGGERS = new Trigger[EventPriority.values().length][0];
+
+	/**
+	 * An immutable dispatch table mapping concrete Event classes to the Triggers that should run for them,
+	 * split by {@link EventPriority#ordinal()}.
+	 * This map is never modified after it is published. Instead, it is replaced copy-on-write whenever
+	 * a previously unseen Event class is fired, and it is discarded whenever the registered Triggers change.
+	 * This allows {@link #check(Event, EventPriority)} to find its Triggers with a single lookup and no allocation.
+	 */
+	private static volatile Map<Class<? extends Event>, Trigger[][]> dispatchTable = Collections.emptyMap();
+
 	/**
 	 * A utility method to get all Triggers registered under the provided Event class.
 	 * @param event The event to find pairs from.
@@ -84,6 +100,62 @@ public final class SkriptEventHandler {
 				.collect(Collectors.toList()); // forces evaluation now and prevents us from having to call getTriggers again if very high logging is enabled
 	}
 
+	/**
+	 * Obtains the Triggers that should be run for the provided Event class at the provided priority.
+	 * The returned array must not be modified.
+	 * @param event The concrete class of the fired Event.
+	 * @param priority The priority the Event is being handled at.
+	 * @return The Triggers for the provided Event class and priority, in registration order.
+	 */
+	private static Trigger[] getDispatchedTriggers(Class<? extends Event> event, EventPriority priority) {
+		Trigger[][] byPriority = dispatchTable.get(event);
+		if (byPriority == null)
+			byPriority = computeDispatchEntry(event);
+		return byPriority[priority.ordinal()];
+	}
+
+	/**
+	 * Computes the dispatch entry for an Event class that is not yet present in the {@link #dispatchTable}
+	 * and publishes a new table containing it.
+	 * @param event The concrete Event class to compute the entry for.
+	 * @return The computed entry.
+	 */
+	private static synchronized Trigger[][] computeDispatchEntry(Class<? extends Event> event) {
+		Trigger[][] byPriority = dispatchTable.get(event);
+		if (byPriority != null) // another thread may have computed it already
+			return byPriority;
+		byPriority = buildDispatchEntry(event);
+		Map<Class<? extends Event>, Trigger[][]> table = new HashMap<>(dispatchTable);
+		table.put(event, byPriority);
+		dispatchTable = table;
+		return byPriority;
+	}
+
+	/**
+	 * Discards the current {@link #dispatchTable} so that each Event class has its entry rebuilt the next time it is fired.
+	 * Must be called whenever {@link #triggers} is modified.
+	 */
+	private static synchronized void invalidateDispatchTable() {
+		dispatchTable = Collections.emptyMap();
+	}
+
+	private static Trigger[][] buildDispatchEntry(Class<? extends Event> event) {
+		if (getHandlerList(event) == null)
+			return NO_TRIGGERS;
+		List<Trigger> eventTriggers = getTriggers(event);
+		if (eventTriggers.isEmpty())
+			return NO_TRIGGERS;
+
+		EventPriority[] priorities = EventPriority.values();
+		Trigger[][] byPriority = new Trigger[priorities.length][];
+		for (EventPriority priority : priorities) {
+			byPriority[priority.ordinal()] = eventTriggers.stream()
+				.filter(trigger -> trigger.getEvent().getEventPriority() == priority)
+				.toArray(Trigger[]::new);
+		}
+		return byPriority;
+	}
+
 	/**
 	 * This method is used for validating that the provided Event may be handled by Skript.
 	 * If validation is successful, all Triggers associated with the provided Event are executed.
@@ -92,26 +164,20 @@ public final class SkriptEventHandler {
 	 * @param priority The priority of the Event.
 	 */
 	private static void check(Event event, EventPriority priority) {
-		// get all triggers for this event, return if none
-		List<Trigger> triggers = getTriggers(event.getClass());
-		if (triggers.isEmpty())
+		// get all triggers for this event at this priority, return if none
+		Trigger[] triggers = getDispatchedTriggers(event.getClass(), priority);
+		if (triggers.length == 0)
 			return;
 
 		// Check if this event should be treated as cancelled
 		boolean isCancelled = isCancelled(event);
 
-		// This logs events even if there isn't a trigger that's going to run at that priority.
-		// However, there should only be a priority listener IF there's a trigger at that priority.
-		// So the time will be logged even if no triggers pass check(), which is still useful information.
+		// The time will be logged even if no triggers pass check(), which is still useful information.
 		logEventStart(event, priority);
 
 		for (Trigger trigger : triggers) {
 			SkriptEvent triggerEvent = trigger.getEvent();
 
-			// check if the trigger is at the right priority
-			if (triggerEvent.getEventPriority() != priority)
-				continue;
-
 			// check if the cancel state of the event is correct
 			if (!triggerEvent.getListeningBehavior().matches(isCancelled))
 				continue;
@@ -153,34 +219,60 @@ public final class SkriptEventHandler {
 
 	/**
 	 * Executes the provided Trigger with the provided Event as context.
+	 * <p>
+	 * If the Trigger can't be executed asynchronously, but the Event was called on another thread,
+	 * the Trigger is executed on the main thread. By default, the thread of the Event waits until the Trigger has finished,
+	 * so changes to the Event (e.g. cancelling it) still apply.
+	 * If {@link SkriptConfig#queueAsyncEventTriggers} is enabled, the Trigger is instead queued to run on the main thread
+	 * with the other Triggers of that tick, and the thread of the Event continues immediately.
+	 * The Event has then already completed when the Trigger runs, so its values can still be read, but changes to it have no effect.
+	 * <p>
+	 * If the {@link SkriptEvent} {@link SkriptEvent#canCheckAsynchronously() can be checked asynchronously},
+	 * it is checked on the thread of the Event, and the main thread is only used if the check passes.
 	 *
 	 * @param trigger The Trigger to execute.
 	 * @param event The Event to execute the Trigger with.
 	 */
 	private static void execute(Trigger trigger, Event event) {
-		// these methods need to be run on whatever thread the trigger is
-		Runnable execute = () -> {
-			logTriggerStart(trigger);
-			Object timing = SkriptTimings.start(trigger.getDebugLabel());
-			trigger.execute(event);
-			SkriptTimings.stop(timing);
-			logTriggerEnd(trigger);
-		};
-
-		if (trigger.getEvent().canExecuteAsynchronously()) {
-			if (trigger.getEvent().check(event))
-				execute.run();
+		SkriptEvent triggerEvent = trigger.getEvent();
+		if (triggerEvent.canExecuteAsynchronously() || Bukkit.isPrimaryThread()) {
+			if (triggerEvent.check(event))
+				run(trigger, event);
+			return;
+		}
+
+		boolean checked = triggerEvent.canCheckAsynchronously();
+		if (checked && !triggerEvent.check(event))
+			return;
+
+		if (SkriptConfig.queueAsyncEventTriggers.value()) {
+			SyncTaskQueue.queue(() -> {
+				if (checked || triggerEvent.check(event))
+					run(trigger, event);
+			});
 		} else { // Ensure main thread
 			Task.callSync(() -> {
-				if (trigger.getEvent().check(event))
-					execute.run();
+				if (checked || triggerEvent.check(event))
+					run(trigger, event);
 				return null; // we don't care about a return value
 			});
 		}
 	}
 
+	/**
+	 * Runs a Trigger whose Event has been checked, on whatever thread the Trigger should be run.
+	 */
+	private static void run(Trigger trigger, Event event) {
+		logTriggerStart(trigger);
+		Object timing = SkriptTimings.start(trigger.getDebugLabel());
+		trigger.execute(event);
+		SkriptTimings.stop(timing);
+		logTriggerEnd(trigger);
+	}
 
-	private static long startEvent;
+
+	// events and triggers may be run on multiple threads at once
+	private static final ThreadLocal<Long> startEvent = new ThreadLocal<>();
 
 	/**
 	 * Logs that the provided Event has started.
@@ -198,9 +290,9 @@ public final class SkriptEventHandler {
 	 * @param priority The priority of the Event.
 	 */
 	public static void logEventStart(Event event, @Nullable EventPriority priority) {
-		startEvent = System.nanoTime();
 		if (!Skript.logVeryHigh())
 			return;
+		startEvent.set(System.nanoTime());
 		Skript.info("");
 
 		String message = "== " + event.getClass().getName();
@@ -222,10 +314,14 @@ public final class SkriptEventHandler {
 	public static void logEventEnd() {
 		if (!Skript.logVeryHigh())
 			return;
-		Skript.info("== took " + 1. * (System.nanoTime() - startEvent) / 1000000. + " milliseconds ==");
+		Long start = startEvent.get();
+		if (start == null)
+			return;
+		startEvent.remove();
+		Skript.info("== took " + 1. * (System.nanoTime() - start) / 1000000. + " milliseconds ==");
 	}
 
-	private static long startTrigger;
+	private static final ThreadLocal<Long> startTrigger = new ThreadLocal<>();
 
 	/**
 	 * Logs that the provided Trigger has begun execution.
@@ -233,9 +329,9 @@ public final class SkriptEventHandler {
 	 * @param trigger The Trigger that execution has begun for.
 	 */
 	public static void logTriggerStart(Trigger trigger) {
-		startTrigger = System.nanoTime();
 		if (!Skript.logVeryHigh())
 			return;
+		startTrigger.set(System.nanoTime());
 		Skript.info("# " + trigger.getName());
 	}
 
@@ -247,7 +343,11 @@ public final class SkriptEventHandler {
 	public static void logTriggerEnd(Trigger t) {
 		if (!Skript.logVeryHigh())
 			return;
-		Skript.info("# " + t.getName() + " took " + 1. * (System.nanoTime() - startTrigger) / 1000000. + " milliseconds");
+		Long start = startTrigger.get();
+		if (start == null)
+			return;
+		startTrigger.remove();
+		Skript.info("# " + t.getName() + " took " + 1. * (System.nanoTime() - start) / 1000000. + " milliseconds");
 	}
 
 	/**
@@ -284,6 +384,7 @@ public final class SkriptEventHandler {
 			return;
 
 		triggers.put(event, trigger);
+		invalidateDispatchTable();
 
 		EventPriority priority = trigger.getEvent().getEventPriority();
 
@@ -331,6 +432,8 @@ public final class SkriptEventHandler {
 				}
 			}
 		}
+
+		invalidateDispatchTable();
 	}
 
 	/**
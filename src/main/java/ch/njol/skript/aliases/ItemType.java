@@ -270,6 +270,8 @@ public class ItemType implements Unit, Iterable<ItemData>, Container<ItemStack>,
 	public boolean isOfType(@Nullable ItemStack item) {
 		if (item == null)
 			return isOfType(Material.AIR, null);
+		if (!mayBeOfType(item.getType()))
+			return false;
 		return isOfType(new ItemData(item));
 	}
 
@@ -284,7 +286,8 @@ public class ItemType implements Unit, Iterable<ItemData>, Container<ItemStack>,
 	public boolean isOfType(@Nullable BlockData blockData) {
 		if (blockData == null)
 			return isOfType(Material.AIR, null);
-
+		if (!mayBeOfType(blockData.getMaterial()))
+			return false;
 		return isOfType(new ItemData(blockData));
 	}
 
@@ -304,14 +307,33 @@ public class ItemType implements Unit, Iterable<ItemData>, Container<ItemStack>,
 	}
 
 	public boolean isOfType(Material id, @Nullable String tags) {
+		if (!mayBeOfType(id))
+			return false;
 		return isOfType(new ItemData(id, tags));
 	}
 
 	public boolean isOfType(Material id) {
-		// TODO avoid object creation
+		if (!mayBeOfType(id))
+			return false;
 		return isOfType(new ItemData(id, (String) null));
 	}
 
+	/**
+	 * Checks whether any of the types of this item type could match an item of the given material.
+	 * Items of other materials never match, so they can be rejected without creating an {@link ItemData},
+	 * which would copy the item's meta.
+	 *
+	 * @param material The material of the item.
+	 * @return Whether the item must be compared to the types of this item type.
+	 */
+	private boolean mayBeOfType(Material material) {
+		for (ItemData type : types) {
+			if (type.getType() == material || type.isAnything)
+				return true;
+		}
+		return false;
+	}
+
 	/**
 	 * Checks if this type represents all the items represented by given
 	 * item type. This type may of course also represent other items.
@@ -779,7 +801,7 @@ public class ItemType implements Unit, Iterable<ItemData>, Container<ItemStack>,
 		int needed = getAmount();
 		int found = 0;
 		for (ItemStack item : items) {
-			if (item != null && new ItemType(item).isSimilar(this)) {
+			if (item != null && mayBeOfType(item.getType()) && new ItemType(item).isSimilar(this)) {
 				found += item.getAmount();
 				if (found >= needed) {
 					if (!all)
@@ -797,7 +819,7 @@ public class ItemType implements Unit, Iterable<ItemData>, Container<ItemStack>,
 		int needed = getAmount();
 		int found = 0;
 		for (ItemStack item : items) {
-			if (item != null && new ItemType(item).isSimilar(this)) {
+			if (item != null && mayBeOfType(item.getType()) && new ItemType(item).isSimilar(this)) {
 				found += item.getAmount();
 				if (found >= needed) {
 					if (!all)
@@ -0,0 +1,229 @@
+package ch.njol.skript.bukkitutil;
+
+import ch.njol.skript.Skript;
+import ch.njol.util.coll.iterator.CheckedIterator;
+import org.bukkit.Chunk;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.util.BoundingBox;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Predicate;
+
+/**
+ * Utility class for finding entities in an area by only visiting the loaded chunks that overlap it,
+ * instead of all entities of a world.
+ * <p>
+ * Entities are found by their location, which is always in the chunk they are stored in.
+ */
+public final class EntityQueries {
+
+	/**
+	 * How far the bounding box of an entity may extend beyond its location horizontally,
+	 * the same margin the server uses to find entities in an area.
+	 */
+	private static final double ENTITY_MARGIN = 2;
+
+	private EntityQueries() {}
+
+	/**
+	 * Gets the entities whose location is within the given radius of the center.
+	 * The entities are found lazily while iterating.
+	 *
+	 * @param center the center
+	 * @param radius the radius
+	 * @param type the class the entities must be an instance of
+	 * @return the entities in the radius, which may have any type if the type is not a player type
+	 */
+	public static Iterator<Entity> getEntitiesInRadius(Location center, double radius, Class<? extends Entity> type) {
+		World world = center.getWorld();
+		double radiusSquared = radius * radius * Skript.EPSILON_MULT;
+		Iterator<Entity> entities;
+		if (Player.class.isAssignableFrom(type)) {
+			// there are far fewer players than entities in chunks
+			entities = Collections.<Entity>unmodifiableList(world.getPlayers()).iterator();
+		} else {
+			entities = getEntitiesInChunks(world,
+				center.getX() - radius, center.getZ() - radius,
+				center.getX() + radius, center.getZ() + radius);
+		}
+		return new CheckedIterator<>(entities, entity -> entity != null
+			&& entity.getLocation().distanceSquared(center) <= radiusSquared);
+	}
+
+	/**
+	 * Gets the entities whose bounding box overlaps the given bounding box.
+	 * The entities are found lazily while iterating.
+	 *
+	 * @param world the world of the bounding box
+	 * @param box the bounding box
+	 * @param type the class the entities must be an instance of
+	 * @return the entities within the bounding box, which may have any type if the type is not a player type
+	 */
+	public static Iterator<Entity> getEntitiesWithin(World world, BoundingBox box, Class<? extends Entity> type) {
+		Iterator<Entity> entities;
+		if (Player.class.isAssignableFrom(type)) {
+			entities = Collections.<Entity>unmodifiableList(world.getPlayers()).iterator();
+		} else {
+			entities = getEntitiesInChunks(world,
+				box.getMinX() - ENTITY_MARGIN, box.getMinZ() - ENTITY_MARGIN,
+				box.getMaxX() + ENTITY_MARGIN, box.getMaxZ() + ENTITY_MARGIN);
+		}
+		return new CheckedIterator<>(entities, entity -> entity != null
+			&& entity.getBoundingBox().overlaps(box));
+	}
+
+	/**
+	 * Gets the entities in the loaded chunks that overlap the given area.
+	 * The entities are found lazily while iterating.
+	 *
+	 * @param world the world
+	 * @param minX the lowest x coordinate of the area
+	 * @param minZ the lowest z coordinate of the area
+	 * @param maxX the highest x coordinate of the area
+	 * @param maxZ the highest z coordinate of the area
+	 * @return the entities in the chunks overlapping the area, including entities outside the area
+	 */
+	public static Iterator<Entity> getEntitiesInChunks(World world, double minX, double minZ, double maxX, double maxZ) {
+		int minChunkX = (int) Math.floor(minX) >> 4;
+		int minChunkZ = (int) Math.floor(minZ) >> 4;
+		int maxChunkX = (int) Math.floor(maxX) >> 4;
+		int maxChunkZ = (int) Math.floor(maxZ) >> 4;
+		long area = ((long) maxChunkX - minChunkX + 1) * ((long) maxChunkZ - minChunkZ + 1);
+
+		List<Chunk> chunks = new ArrayList<>();
+		if (area > 256) {
+			// a large area may contain more chunk positions than there are loaded chunks
+			Chunk[] loadedChunks = world.getLoadedChunks();
+			if (area > loadedChunks.length) {
+				for (Chunk chunk : loadedChunks) {
+					if (chunk.getX() >= minChunkX && chunk.getX() <= maxChunkX && chunk.getZ() >= minChunkZ && chunk.getZ() <= maxChunkZ)
+						chunks.add(chunk);
+				}
+				return new ChunkEntityIterator(chunks.iterator());
+			}
+		}
+		for (int x = minChunkX; x <= maxChunkX; x++) {
+			for (int z = minChunkZ; z <= maxChunkZ; z++) {
+				if (world.isChunkLoaded(x, z))
+					chunks.add(world.getChunkAt(x, z));
+			}
+		}
+		return new ChunkEntityIterator(chunks.iterator());
+	}
+
+	/**
+	 * Finds the entity nearest to a location, searching the loaded chunks in rings around it,
+	 * and stopping as soon as no farther chunk can contain a nearer entity.
+	 *
+	 * @param center the location
+	 * @param type the class the entity must be an instance of
+	 * @param filter the condition the entity must match
+	 * @return the nearest entity, or null if there is no matching entity in the world of the location
+	 */
+	@Nullable
+	public static <E extends Entity> E getNearestEntity(Location center, Class<E> type, Predicate<? super E> filter) {
+		World world = center.getWorld();
+		if (Player.class.isAssignableFrom(type))
+			return getNearestEntity(center, type, filter, world.getPlayers());
+
+		// the farthest ring that contains a loaded chunk
+		Chunk[] loadedChunks = world.getLoadedChunks();
+		int centerX = center.getBlockX() >> 4;
+		int centerZ = center.getBlockZ() >> 4;
+		int maxRing = 0;
+		for (Chunk chunk : loadedChunks)
+			maxRing = Math.max(maxRing, Math.max(Math.abs(chunk.getX() - centerX), Math.abs(chunk.getZ() - centerZ)));
+		long positions = (2L * maxRing + 1) * (2L * maxRing + 1);
+		if (positions > 4L * loadedChunks.length) {
+			// the loaded chunks are spread out, checking every loaded chunk is faster
+			return getNearestEntity(center, type, filter, world.getEntitiesByClass(type));
+		}
+
+		E nearest = null;
+		double nearestDistanceSquared = Double.MAX_VALUE;
+		for (int ring = 0; ring <= maxRing; ring++) {
+			for (int x = centerX - ring; x <= centerX + ring; x++) {
+				// only the edges of the ring, the inside has already been searched
+				int step = x == centerX - ring || x == centerX + ring ? 1 : Math.max(2 * ring, 1);
+				for (int z = centerZ - ring; z <= centerZ + ring; z += step) {
+					if (!world.isChunkLoaded(x, z))
+						continue;
+					for (Entity entity : world.getChunkAt(x, z).getEntities()) {
+						if (!type.isInstance(entity))
+							continue;
+						E typed = type.cast(entity);
+						double distanceSquared = entity.getLocation().distanceSquared(center);
+						if (distanceSquared < nearestDistanceSquared && filter.test(typed)) {
+							nearest = typed;
+							nearestDistanceSquared = distanceSquared;
+						}
+					}
+				}
+			}
+			// any entity in the next ring is at least this many blocks away
+			double nextRingDistance = 16.0 * ring;
+			if (nearest != null && nearestDistanceSquared <= nextRingDistance * nextRingDistance)
+				break;
+		}
+		return nearest;
+	}
+
+	@Nullable
+	private static <E extends Entity> E getNearestEntity(Location center, Class<E> type, Predicate<? super E> filter, Iterable<? extends Entity> entities) {
+		E nearest = null;
+		double nearestDistanceSquared = Double.MAX_VALUE;
+		for (Entity entity : entities) {
+			if (!type.isInstance(entity))
+				continue;
+			E typed = type.cast(entity);
+			double distanceSquared = entity.getLocation().distanceSquared(center);
+			if (distanceSquared < nearestDistanceSquared && filter.test(typed)) {
+				nearest = typed;
+				nearestDistanceSquared = distanceSquared;
+			}
+		}
+		return nearest;
+	}
+
+	/**
+	 * Iterates over the entities of chunks, getting the entities of each chunk when it is reached.
+	 */
+	private static final class ChunkEntityIterator implements Iterator<Entity> {
+
+		private final Iterator<Chunk> chunks;
+		private Entity[] entities = new Entity[0];
+		private int index;
+
+		ChunkEntityIterator(Iterator<Chunk> chunks) {
+			this.chunks = chunks;
+		}
+
+		@Override
+		public boolean hasNext() {
+			while (index >= entities.length) {
+				if (!chunks.hasNext())
+					return false;
+				entities = chunks.next().getEntities();
+				index = 0;
+			}
+			return true;
+		}
+
+		@Override
+		public Entity next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			return entities[index++];
+		}
+
+	}
+
+}
@@ -109,8 +109,43 @@ public abstract class Commands {
 		}
 	}
 
-	@Nullable
-	public static List<Argument<?>> currentArguments = null;
+	/**
+	 * The arguments of the command that is being loaded on each thread, as scripts may be loaded in parallel.
+	 */
+	private static final ThreadLocal<@Nullable List<Argument<?>>> loadingArguments = new ThreadLocal<>();
+
+	/**
+	 * @deprecated Scripts may be loaded on multiple threads, thus this field is not reliable.
+	 * Use {@link #getCurrentArguments()} and {@link #setCurrentArguments(List)} instead.
+	 * This field is still set while a command is loaded, and read if no arguments were set for the current thread.
+	 */
+	@Deprecated(since = "2.12", forRemoval = true)
+	public static @Nullable List<Argument<?>> currentArguments = null;
+
+	/**
+	 * @return the arguments of the command that is being loaded on the current thread,
+	 * or null if no command is being loaded
+	 */
+	@SuppressWarnings("removal")
+	public static @Nullable List<Argument<?>> getCurrentArguments() {
+		List<Argument<?>> arguments = loadingArguments.get();
+		return arguments != null ? arguments : currentArguments;
+	}
+
+	/**
+	 * Sets the arguments of the command that is being loaded on the current thread.
+	 *
+	 * @param arguments the arguments, or null once the command has been loaded
+	 */
+	@SuppressWarnings("removal")
+	public static void setCurrentArguments(@Nullable List<Argument<?>> arguments) {
+		if (arguments == null) {
+			loadingArguments.remove();
+		} else {
+			loadingArguments.set(arguments);
+		}
+		currentArguments = arguments;
+	}
 
 	@SuppressWarnings("null")
 	private final static Pattern escape = Pattern.compile("[" + Pattern.quote("(|)<>%\\") + "]");
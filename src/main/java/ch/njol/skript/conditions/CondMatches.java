@@ -2,7 +2,11 @@
 package ch.njol.skript.conditions;
 
 import java.util.Arrays;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Stream;
 
 import org.bukkit.event.Event;
 import org.jetbrains.annotations.Nullable;
@@ -14,7 +18,9 @@ import ch.njol.skript.doc.Name;
 import ch.njol.skript.doc.Since;
 import ch.njol.skript.lang.Condition;
 import ch.njol.skript.lang.Expression;
+import ch.njol.skript.lang.Literal;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
+import ch.njol.skript.util.RegexCache;
 import ch.njol.util.Kleenean;
 
 @Name("Matches")
@@ -33,11 +39,21 @@ public class CondMatches extends Condition {
 			"%strings% (1¦partially match[es]|2¦do[es](n't| not) partially match) %strings%");
 	}
 	
+	/**
+	 * The amount of string and regex pairs above which strings are matched in parallel.
+	 */
+	private static final int PARALLEL_THRESHOLD = 4096;
+
 	@SuppressWarnings("null")
 	Expression<String> strings;
 	@SuppressWarnings("null")
 	Expression<String> regex;
-	
+
+	/**
+	 * The compiled regexes if they are literals, compiled when executed otherwise.
+	 */
+	private Pattern @Nullable [] patterns;
+
 	boolean partial;
 	
 	@Override
@@ -47,33 +63,56 @@ public class CondMatches extends Condition {
 		regex = (Expression<String>) exprs[1];
 		partial = matchedPattern == 1;
 		setNegated(parseResult.mark == 1);
+		if (regex instanceof Literal<String> literal) {
+			String[] regexes = literal.getAll();
+			patterns = new Pattern[regexes.length];
+			for (int i = 0; i < regexes.length; i++) {
+				try {
+					patterns[i] = Pattern.compile(regexes[i]);
+				} catch (PatternSyntaxException e) {
+					Skript.error("'" + regexes[i] + "' is not a valid regular expression");
+					return false;
+				}
+			}
+		}
 		return true;
 	}
 	
 	@Override
 	public boolean check(Event e) {
 		String[] txt = strings.getAll(e);
-		String[] regexes = regex.getAll(e);
-		if (txt.length < 1 || regexes.length < 1) return false;
-		boolean result;
-		boolean stringAnd = strings.getAnd();
-		boolean regexAnd = regex.getAnd();
-		if (stringAnd) {
-			if (regexAnd) {
-				result = Arrays.stream(txt).allMatch((str) -> Arrays.stream(regexes).parallel().map(Pattern::compile).allMatch((pattern -> matches(str, pattern))));
-			} else {
-				result = Arrays.stream(txt).allMatch((str) -> Arrays.stream(regexes).parallel().map(Pattern::compile).anyMatch((pattern -> matches(str, pattern))));
+		Pattern[] patterns = this.patterns;
+		if (patterns == null) {
+			String[] regexes = regex.getAll(e);
+			patterns = new Pattern[regexes.length];
+			try {
+				for (int i = 0; i < regexes.length; i++)
+					patterns[i] = RegexCache.get(regexes[i]);
+			} catch (PatternSyntaxException ex) {
+				return false;
 			}
-		} else if (regexAnd) {
-			result = Arrays.stream(txt).anyMatch((str) -> Arrays.stream(regexes).parallel().map(Pattern::compile).allMatch((pattern -> matches(str, pattern))));
-		} else {
-			result = Arrays.stream(txt).anyMatch((str) -> Arrays.stream(regexes).parallel().map(Pattern::compile).anyMatch((pattern -> matches(str, pattern))));
 		}
+		if (txt.length < 1 || patterns.length < 1) return false;
+		boolean regexAnd = regex.getAnd();
+		Pattern[] finalPatterns = patterns;
+		Predicate<String> matchesRegexes = str -> {
+			for (Pattern pattern : finalPatterns) {
+				if (matches(str, pattern) != regexAnd)
+					return !regexAnd;
+			}
+			return regexAnd;
+		};
+
+		Stream<String> stream = Arrays.stream(txt);
+		if ((long) txt.length * patterns.length > PARALLEL_THRESHOLD)
+			stream = stream.parallel();
+		boolean result = strings.getAnd() ? stream.allMatch(matchesRegexes) : stream.anyMatch(matchesRegexes);
 		return result == isNegated();
 	}
 	
 	public boolean matches(String str, Pattern pattern) {
-		return partial ? pattern.matcher(str).find() : str.matches(pattern.pattern());
+		Matcher matcher = pattern.matcher(str);
+		return partial ? matcher.find() : matcher.matches();
 	}
 	
 	@Override
@@ -12,8 +12,10 @@ import ch.njol.skript.doc.Since;
 import ch.njol.skript.lang.Effect;
 import ch.njol.skript.lang.Expression;
 import ch.njol.skript.lang.ExpressionList;
+import ch.njol.skript.lang.Literal;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
 import ch.njol.skript.lang.SyntaxStringBuilder;
+import ch.njol.skript.util.RegexCache;
 import ch.njol.util.Kleenean;
 import ch.njol.util.StringUtils;
 import org.bukkit.event.Event;
@@ -28,6 +30,7 @@ import java.util.Map;
 import java.util.function.Function;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 @Name("Replace")
 @Description(
@@ -64,6 +67,11 @@ public class EffReplace extends Effect {
 	private boolean replaceFirst;
 	private boolean caseSensitive = false;
 
+	/**
+	 * The compiled regexes if they are literals, compiled when executed otherwise.
+	 */
+	private @Nullable List<Pattern> patterns;
+
 	@Override
 	public boolean init(Expression<?>[] expressions, int matchedPattern,
 						Kleenean isDelayed, ParseResult parseResult) {
@@ -83,6 +91,19 @@ public class EffReplace extends Effect {
 
 		needles = expressions[0];
 		replacement = expressions[2 - matchedPattern % 2];
+
+		if (replaceRegex && needles instanceof Literal<?> literal) {
+			Object[] regexes = literal.getAll();
+			patterns = new ArrayList<>(regexes.length);
+			for (Object regex : regexes) {
+				try {
+					patterns.add(Pattern.compile((String) regex));
+				} catch (PatternSyntaxException e) {
+					Skript.error("'" + regex + "' is not a valid regular expression");
+					return false;
+				}
+			}
+		}
 		return true;
 	}
 
@@ -133,14 +154,18 @@ public class EffReplace extends Effect {
 		Function<String, String> replaceFunction;
 
 		if (replaceRegex) {
-			List<Pattern> patterns = new ArrayList<>(needles.length);
-			for (Object needle : needles) {
-				try {
-					patterns.add(Pattern.compile((String) needle));
-				} catch (Exception ignored) { }
+			List<Pattern> patterns = this.patterns;
+			if (patterns == null) {
+				patterns = new ArrayList<>(needles.length);
+				for (Object needle : needles) {
+					try {
+						patterns.add(RegexCache.get((String) needle));
+					} catch (PatternSyntaxException ignored) { }
+				}
 			}
+			List<Pattern> finalPatterns = patterns;
 			replaceFunction = haystackString -> {
-				for (Pattern pattern : patterns) {
+				for (Pattern pattern : finalPatterns) {
 					Matcher matcher = pattern.matcher(haystackString);
 					if (replaceFirst) {
 						haystackString = matcher.replaceFirst(replacement);
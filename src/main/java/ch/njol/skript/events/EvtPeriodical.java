@@ -1,14 +1,16 @@
 package ch.njol.skript.events;
 
 import ch.njol.skript.Skript;
+import ch.njol.skript.SkriptConfig;
 import ch.njol.skript.SkriptEventHandler;
 import ch.njol.skript.events.bukkit.ScheduledEvent;
 import ch.njol.skript.events.bukkit.ScheduledNoWorldEvent;
 import ch.njol.skript.lang.Literal;
 import ch.njol.skript.lang.SkriptEvent;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
+import ch.njol.skript.util.TickScheduler;
+import ch.njol.skript.util.TickScheduler.ScheduledTask;
 import ch.njol.skript.util.Timespan;
-import org.bukkit.Bukkit;
 import org.bukkit.World;
 import org.bukkit.event.Event;
 import org.jetbrains.annotations.Nullable;
@@ -39,7 +41,7 @@ public class EvtPeriodical extends SkriptEvent {
 	private Timespan period;
 
 	@SuppressWarnings("NotNullFieldNotInitialized")
-	private int[] taskIDs;
+	private ScheduledTask[] tasks;
 
 	private World @Nullable [] worlds;
 
@@ -54,20 +56,18 @@ public class EvtPeriodical extends SkriptEvent {
 
 	@Override
 	public boolean postLoad() {
-		long ticks = period.getAs(Timespan.TimePeriod.TICK);
+		long ticks = Math.max(period.getAs(Timespan.TimePeriod.TICK), 1);
 
 		if (worlds == null) {
-			taskIDs = new int[]{
-				Bukkit.getScheduler().scheduleSyncRepeatingTask(
-					Skript.getInstance(), () -> execute(null), ticks, ticks
-				)
+			tasks = new ScheduledTask[]{
+				TickScheduler.runRepeating(() -> execute(null), getDelay(ticks, ticks), ticks)
 			};
 		} else {
-			taskIDs = new int[worlds.length];
+			tasks = new ScheduledTask[worlds.length];
 			for (int i = 0; i < worlds.length; i++) {
 				World world = worlds[i];
-				taskIDs[i] = Bukkit.getScheduler().scheduleSyncRepeatingTask(
-					Skript.getInstance(), () -> execute(world), ticks - (world.getFullTime() % ticks), ticks
+				tasks[i] = TickScheduler.runRepeating(
+					() -> execute(world), getDelay(ticks - (world.getFullTime() % ticks), ticks), ticks
 				);
 			}
 		}
@@ -75,10 +75,23 @@ public class EvtPeriodical extends SkriptEvent {
 		return true;
 	}
 
+	/**
+	 * Gets the delay before the first execution,
+	 * spreading periodical events with the same period over different ticks if enabled in the config.
+	 *
+	 * @param delay the delay if periodical events are not spread, between 1 and the period
+	 * @param ticks the period
+	 */
+	private static long getDelay(long delay, long ticks) {
+		if (!SkriptConfig.spreadPeriodicalEvents.value())
+			return delay;
+		return (delay - 1 + TickScheduler.getSpreadOffset(ticks)) % ticks + 1;
+	}
+
 	@Override
 	public void unload() {
-		for (int taskID : taskIDs)
-			Bukkit.getScheduler().cancelTask(taskID);
+		for (ScheduledTask task : tasks)
+			task.cancel();
 	}
 
 	@Override
@@ -1,6 +1,7 @@
 package ch.njol.skript.expressions;
 
 import ch.njol.skript.Skript;
+import ch.njol.skript.bukkitutil.EntityQueries;
 import ch.njol.skript.doc.Description;
 import ch.njol.skript.doc.Examples;
 import ch.njol.skript.doc.Name;
@@ -170,12 +171,9 @@ public class ExprEntities extends SimpleExpression<Entity> {
 			if (location.getWorld() == null) // safety
 				return null;
 
-			Collection<Entity> nearbyEntities = location.getWorld().getNearbyEntities(location, rad, rad, rad);
-			double radiusSquared = rad * rad * Skript.EPSILON_MULT;
 			EntityData<?>[] entityTypes = types.getAll(event);
-			return new CheckedIterator<>(nearbyEntities.iterator(), entity -> {
-					if (entity == null || entity.getLocation().distanceSquared(location) > radiusSquared)
-						return false;
+			Iterator<Entity> nearbyEntities = EntityQueries.getEntitiesInRadius(location, rad, returnType);
+			return new CheckedIterator<>(nearbyEntities, entity -> {
 					for (EntityData<?> entityType : entityTypes) {
 						if (entityType.isInstance(entity))
 							return true;
@@ -195,10 +193,8 @@ public class ExprEntities extends SimpleExpression<Entity> {
 				world = corner2.getWorld();
 			if (world == null)
 				return null;
-			Collection<Entity> entities = corner1.getWorld().getNearbyEntities(BoundingBox.of(corner1, corner2));
-			return new CheckedIterator<>(entities.iterator(), entity -> {
-				if (entity == null)
-					return false;
+			Iterator<Entity> entities = EntityQueries.getEntitiesWithin(world, BoundingBox.of(corner1, corner2), returnType);
+			return new CheckedIterator<>(entities, entity -> {
 				for (EntityData<?> entityType : entityTypes) {
 					if (entityType.isInstance(entity))
 						return true;
@@ -0,0 +1,83 @@
+package ch.njol.skript.expressions;
+
+import ch.njol.skript.Skript;
+import ch.njol.skript.doc.Description;
+import ch.njol.skript.doc.Example;
+import ch.njol.skript.doc.Name;
+import ch.njol.skript.doc.Since;
+import ch.njol.skript.lang.Expression;
+import ch.njol.skript.lang.ExpressionType;
+import ch.njol.skript.lang.SkriptParser.ParseResult;
+import ch.njol.skript.lang.Variable;
+import ch.njol.skript.lang.util.SimpleExpression;
+import ch.njol.skript.variables.ListRankings;
+import ch.njol.util.Kleenean;
+import org.bukkit.event.Event;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+
+@Name("Rank of Index")
+@Description({
+	"The rank of the value of an index of a list variable, i.e. its position in the list if it were sorted by value, starting at 1.",
+	"Only numeric values are ranked, so indices with other values or that are not set have no rank.",
+	"Global list variables are only sorted once, and are kept sorted as they change, so ranking them is fast even for very large lists."
+})
+@Example("""
+	set {_rank} to the rank of index (uuid of player) in {points::*} in descending order
+	send "You are ##%{_rank}% on the leaderboard!"
+	""")
+@Since("2.12")
+public class ExprIndexRank extends SimpleExpression<Long> {
+
+	static {
+		Skript.registerExpression(ExprIndexRank.class, Long.class, ExpressionType.COMBINED,
+				"[the] rank of [the] index %string% in %~objects% [in (ascending|:descending) order]");
+	}
+
+	private Expression<String> index;
+	private Variable<?> list;
+	private boolean descending;
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean init(Expression<?>[] exprs, int matchedPattern, Kleenean isDelayed, ParseResult parseResult) {
+		if (!(exprs[1] instanceof Variable<?> variable) || !variable.isList()) {
+			Skript.error("The rank of an index can only be found in list variables");
+			return false;
+		}
+		index = (Expression<String>) exprs[0];
+		list = variable;
+		descending = parseResult.hasTag("descending");
+		return true;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	protected Long @Nullable [] get(Event event) {
+		String index = this.index.getSingle(event);
+		if (index == null || !(list.getRaw(event) instanceof Map<?, ?> values))
+			return new Long[0];
+		int rank = ListRankings.getRank((Map<String, ?>) values, index, descending);
+		if (rank == 0)
+			return new Long[0];
+		return new Long[] {(long) rank};
+	}
+
+	@Override
+	public boolean isSingle() {
+		return true;
+	}
+
+	@Override
+	public Class<? extends Long> getReturnType() {
+		return Long.class;
+	}
+
+	@Override
+	public String toString(@Nullable Event event, boolean debug) {
+		return "the rank of index " + index.toString(event, debug) + " in " + list.toString(event, debug)
+			+ " in " + (descending ? "descending" : "ascending") + " order";
+	}
+
+}
@@ -1,6 +1,7 @@
 package ch.njol.skript.expressions;
 
 import ch.njol.skript.Skript;
+import ch.njol.skript.bukkitutil.EntityQueries;
 import ch.njol.skript.doc.Description;
 import ch.njol.skript.doc.Examples;
 import ch.njol.skript.doc.Name;
@@ -100,18 +101,8 @@ public class ExprNearestEntity extends SimpleExpression<Entity> {
 
 	@Nullable
 	private Entity getNearestEntity(EntityData<?> entityData, Location relativePoint, @Nullable Entity excludedEntity) {
-		Entity nearestEntity = null;
-		double nearestDistance = -1;
-		for (Entity entity : relativePoint.getWorld().getEntitiesByClass(entityData.getType())) {
-			if (entity != excludedEntity && entityData.isInstance(entity)) {
-				double distance = entity.getLocation().distance(relativePoint);
-				if (nearestEntity == null || distance < nearestDistance) {
-					nearestDistance = distance;
-					nearestEntity = entity;
-				}
-			}
-		}
-		return nearestEntity;
+		return EntityQueries.getNearestEntity(relativePoint, entityData.getType(),
+			entity -> entity != excludedEntity && entityData.isInstance(entity));
 	}
 
 }
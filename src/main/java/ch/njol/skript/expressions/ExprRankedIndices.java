@@ -0,0 +1,105 @@
+package ch.njol.skript.expressions;
+
+import ch.njol.skript.Skript;
+import ch.njol.skript.doc.Description;
+import ch.njol.skript.doc.Example;
+import ch.njol.skript.doc.Name;
+import ch.njol.skript.doc.Since;
+import ch.njol.skript.lang.Expression;
+import ch.njol.skript.lang.ExpressionType;
+import ch.njol.skript.lang.SkriptParser.ParseResult;
+import ch.njol.skript.lang.Variable;
+import ch.njol.skript.lang.util.SimpleExpression;
+import ch.njol.skript.variables.ListRankings;
+import ch.njol.util.Kleenean;
+import org.bukkit.event.Event;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+
+@Name("Ranked Indices")
+@Description({
+	"The indices of a list variable with the highest or lowest values, or with a range of ranks, in order of rank.",
+	"Only numeric values are ranked, and equal values are ranked by their indices.",
+	"Global list variables are only sorted once, and are kept sorted as they change, so this is fast even for very large lists."
+})
+@Example("""
+	set {_top::*} to the top 10 indices of {points::*}
+	loop {_top::*}:
+		send "%loop-iteration%. %loop-value%: %{points::%loop-value%}%"
+	""")
+@Example("set {_page::*} to the indices ranked 11 to 20 in {points::*} in descending order")
+@Since("2.12")
+public class ExprRankedIndices extends SimpleExpression<String> {
+
+	static {
+		Skript.registerExpression(ExprRankedIndices.class, String.class, ExpressionType.COMBINED,
+				"[the] (top|:bottom) %number% (indices|indexes) of %~objects%",
+				"[the] (indices|indexes) ranked %number% to %number% in %~objects% [in (ascending|:descending) order]");
+	}
+
+	private Expression<Number> from;
+	private @Nullable Expression<Number> to;
+	private Variable<?> list;
+	private boolean descending;
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public boolean init(Expression<?>[] exprs, int matchedPattern, Kleenean isDelayed, ParseResult parseResult) {
+		Expression<?> list = exprs[exprs.length - 1];
+		if (!(list instanceof Variable<?> variable) || !variable.isList()) {
+			Skript.error("Ranked indices can only be found in list variables");
+			return false;
+		}
+		this.list = variable;
+		from = (Expression<Number>) exprs[0];
+		if (matchedPattern == 0) {
+			descending = !parseResult.hasTag("bottom");
+		} else {
+			to = (Expression<Number>) exprs[1];
+			descending = parseResult.hasTag("descending");
+		}
+		return true;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	protected String @Nullable [] get(Event event) {
+		Number from = this.from.getSingle(event);
+		if (from == null)
+			return new String[0];
+		int first, last;
+		if (to == null) {
+			first = 1;
+			last = from.intValue();
+		} else {
+			Number to = this.to.getSingle(event);
+			if (to == null)
+				return new String[0];
+			first = from.intValue();
+			last = to.intValue();
+		}
+		if (first > last || !(list.getRaw(event) instanceof Map<?, ?> values))
+			return new String[0];
+		return ListRankings.getIndices((Map<String, ?>) values, first, last, descending).toArray(new String[0]);
+	}
+
+	@Override
+	public boolean isSingle() {
+		return false;
+	}
+
+	@Override
+	public Class<? extends String> getReturnType() {
+		return String.class;
+	}
+
+	@Override
+	public String toString(@Nullable Event event, boolean debug) {
+		if (to == null)
+			return "the " + (descending ? "top " : "bottom ") + from.toString(event, debug) + " indices of " + list.toString(event, debug);
+		return "the indices ranked " + from.toString(event, debug) + " to " + to.toString(event, debug)
+			+ " in " + list.toString(event, debug) + " in " + (descending ? "descending" : "ascending") + " order";
+	}
+
+}
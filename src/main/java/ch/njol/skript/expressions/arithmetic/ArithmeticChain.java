@@ -10,6 +10,7 @@ import org.skriptlang.skript.lang.arithmetic.OperationInfo;
 import org.skriptlang.skript.lang.arithmetic.Operator;
 import org.skriptlang.skript.lang.converter.Converters;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.function.Function;
 import java.util.function.Predicate;
@@ -30,50 +31,112 @@ public class ArithmeticChain<L, R, T> implements ArithmeticGettable<T> {
 		o -> o.equals(Operator.EXPONENTIATION)
 	};
 
+	/**
+	 * The maximum amount of operations cached per chain, see {@link #cache}.
+	 */
+	private static final int MAX_CACHE_SIZE = 4;
+
+	/**
+	 * Returned by {@link #evaluate(Event, NumberArithmetic.Value)} when the result has been stored in the given value.
+	 */
+	private static final Object NUMBER = new Object();
+
 	private final ArithmeticGettable<L> left;
 	private final ArithmeticGettable<R> right;
 	private final Operator operator;
 	private final Class<? extends T> returnType;
 	private final @Nullable OperationInfo<? extends L, ? extends R, ? extends T> operationInfo;
 
+	/**
+	 * Whether {@link #operationInfo} is the operation between two numbers, which can be calculated without boxing.
+	 */
+	private final boolean numeric;
+
+	/**
+	 * The operations looked up for the classes of the operands when {@link #operationInfo} is not known.
+	 * Once this contains {@link #MAX_CACHE_SIZE} operations, other operations are looked up every time.
+	 */
+	private volatile CachedOperation[] cache = new CachedOperation[0];
+
 	public ArithmeticChain(ArithmeticGettable<L> left, Operator operator, ArithmeticGettable<R> right, @Nullable OperationInfo<L, R, T> operationInfo) {
 		this.left = left;
 		this.right = right;
 		this.operator = operator;
 		this.operationInfo = operationInfo;
 		this.returnType = operationInfo != null ? operationInfo.getReturnType() : (Class<? extends T>) Object.class;
+		this.numeric = operationInfo != null && isNumberOperation(operationInfo);
 	}
 
 	@Override
 	@Nullable
 	@SuppressWarnings("unchecked")
 	public T get(Event event) {
-		L left = this.left.get(event);
+		NumberArithmetic.Value value = new NumberArithmetic.Value();
+		Object result = evaluate(event, value);
+		return (T) (result == NUMBER ? value.box() : result);
+	}
+
+	/**
+	 * Evaluates this chain. If the result is a number calculated by this chain,
+	 * it is stored in the given value instead of being boxed.
+	 *
+	 * @return the result, or {@link #NUMBER} if the result was stored in the given value
+	 */
+	@Nullable
+	@SuppressWarnings("unchecked")
+	private Object evaluate(Event event, NumberArithmetic.Value value) {
+		Object left = evaluate(this.left, event, value);
 		if (left == null && this.left instanceof ArithmeticChain)
 			return null;
+		boolean leftInteger = value.integer;
+		long leftLong = value.longValue;
+		double leftDouble = value.doubleValue;
+		Class<?> leftClass = left == NUMBER ? value.getType() : left != null ? left.getClass() : this.left.getReturnType();
 
-		R right = this.right.get(event);
+		Object right = evaluate(this.right, event, value);
 		if (right == null && this.right instanceof ArithmeticChain)
 			return null;
-
-		Class<? extends L> leftClass = left != null ? (Class<? extends L>) left.getClass() : this.left.getReturnType();
-		Class<? extends R> rightClass = right != null ? (Class<? extends R>) right.getClass() : this.right.getReturnType();
+		Class<?> rightClass = right == NUMBER ? value.getType() : right != null ? right.getClass() : this.right.getReturnType();
 
 		if (leftClass == Object.class && rightClass == Object.class)
 			return null;
 
-		OperationInfo<? extends L, ? extends R, ? extends T> operationInfo = this.operationInfo;
+		OperationInfo<?, ?, ?> operationInfo;
+		boolean numeric = false;
 		if (left == null && leftClass == Object.class) {
 			operationInfo = lookupOperationInfo(rightClass, OperationInfo::getRight);
 		} else if (right == null && rightClass == Object.class) {
 			operationInfo = lookupOperationInfo(leftClass, OperationInfo::getLeft);
-		} else if (operationInfo == null) {
-			operationInfo = Arithmetics.lookupOperationInfo(operator, leftClass, rightClass, returnType);
+		} else if (this.operationInfo != null) {
+			operationInfo = this.operationInfo;
+			numeric = this.numeric;
+		} else {
+			CachedOperation cached = getCachedOperation(leftClass, rightClass);
+			operationInfo = cached.operationInfo();
+			numeric = cached.numeric();
 		}
 
 		if (operationInfo == null)
 			return null;
 
+		if (numeric && left != null && right != null) {
+			if (left != NUMBER) {
+				Number number = (Number) left;
+				leftInteger = Utils.isInteger(number);
+				leftLong = number.longValue();
+				leftDouble = number.doubleValue();
+			}
+			if (right != NUMBER)
+				value.set((Number) right);
+			NumberArithmetic.calculate(operator, leftInteger, leftLong, leftDouble, value, value);
+			return NUMBER;
+		}
+
+		if (left == NUMBER)
+			left = leftInteger ? (Object) leftLong : (Object) leftDouble;
+		if (right == NUMBER)
+			right = value.box();
+
 		left = left != null ? left : Arithmetics.getDefaultValue(operationInfo.getLeft());
 		if (left == null)
 			return null;
@@ -81,9 +144,61 @@ public class ArithmeticChain<L, R, T> implements ArithmeticGettable<T> {
 		if (right == null)
 			return null;
 
-		return ((Operation<L, R, T>) operationInfo.getOperation()).calculate(left, right);
+		return ((Operation<Object, Object, ?>) operationInfo.getOperation()).calculate(left, right);
 	}
 
+	/**
+	 * Evaluates an operand, without boxing the result if it is a chain of numbers.
+	 *
+	 * @see #evaluate(Event, NumberArithmetic.Value)
+	 */
+	@Nullable
+	private static Object evaluate(ArithmeticGettable<?> gettable, Event event, NumberArithmetic.Value value) {
+		if (gettable instanceof ArithmeticChain<?, ?, ?> chain)
+			return chain.evaluate(event, value);
+		return gettable.get(event);
+	}
+
+	/**
+	 * Gets the operation for the given classes of the operands from the {@link #cache}, looking it up if it isn't cached.
+	 */
+	private CachedOperation getCachedOperation(Class<?> leftClass, Class<?> rightClass) {
+		CachedOperation[] cache = this.cache;
+		for (CachedOperation cached : cache) {
+			if (cached.left() == leftClass && cached.right() == rightClass)
+				return cached;
+		}
+
+		OperationInfo<?, ?, ?> operationInfo = Arithmetics.lookupOperationInfo(operator, leftClass, rightClass, returnType);
+		OperationInfo<?, ?, ?> registeredInfo = Arithmetics.getOperationInfo(operator, leftClass, rightClass);
+		boolean numeric = operationInfo != null && registeredInfo != null && isNumberOperation(registeredInfo)
+			&& returnType.isAssignableFrom(Number.class);
+		CachedOperation cached = new CachedOperation(leftClass, rightClass, operationInfo, numeric);
+
+		if (cache.length < MAX_CACHE_SIZE) {
+			CachedOperation[] newCache = Arrays.copyOf(cache, cache.length + 1);
+			newCache[cache.length] = cached;
+			this.cache = newCache; // concurrently cached operations may be lost, in which case they are looked up again
+		}
+		return cached;
+	}
+
+	/**
+	 * @return whether the given operation is the operation between two numbers registered by Skript, see {@link NumberArithmetic}.
+	 * Operations between numbers cannot be registered twice, so no addon can have replaced it.
+	 */
+	private static boolean isNumberOperation(OperationInfo<?, ?, ?> operationInfo) {
+		return operationInfo.getLeft() == Number.class && operationInfo.getRight() == Number.class
+			&& operationInfo.getReturnType() == Number.class;
+	}
+
+	/**
+	 * An operation looked up for the classes of the operands.
+	 *
+	 * @param numeric whether the operation can be calculated by {@link NumberArithmetic} without boxing
+	 */
+	private record CachedOperation(Class<?> left, Class<?> right, @Nullable OperationInfo<?, ?, ?> operationInfo, boolean numeric) {}
+
 	@Nullable
 	@SuppressWarnings("unchecked")
 	private OperationInfo<L, R, T> lookupOperationInfo(Class<?> anchor, Function<OperationInfo<?, ?, ?>, Class<?>> anchorFunction) {
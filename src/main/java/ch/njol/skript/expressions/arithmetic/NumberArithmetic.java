@@ -0,0 +1,155 @@
+package ch.njol.skript.expressions.arithmetic;
+
+import ch.njol.skript.classes.data.DefaultOperations;
+import ch.njol.skript.util.Utils;
+import org.skriptlang.skript.lang.arithmetic.Operator;
+
+/**
+ * The arithmetic operations between two numbers, as registered in {@link DefaultOperations}.
+ * Operations on integers return integers unless the result would overflow.
+ * <p>
+ * The primitive variants are used by {@link ArithmeticChain} to evaluate chains of numbers without boxing the intermediate results.
+ */
+public final class NumberArithmetic {
+
+	private NumberArithmetic() {}
+
+	public static Number add(Number left, Number right) {
+		if (Utils.isInteger(left, right)) {
+			long result = left.longValue() + right.longValue();
+			if (!additionOverflows(left.longValue(), right.longValue(), result))
+				return result;
+		}
+		return left.doubleValue() + right.doubleValue();
+	}
+
+	public static Number subtract(Number left, Number right) {
+		if (Utils.isInteger(left, right)) {
+			long result = left.longValue() - right.longValue();
+			if (!additionOverflows(left.longValue(), right.longValue(), result))
+				return result;
+		}
+		return left.doubleValue() - right.doubleValue();
+	}
+
+	public static Number multiply(Number left, Number right) {
+		if (Utils.isInteger(left, right)) {
+			long result = left.longValue() * right.longValue();
+			if (!multiplicationOverflows(left.longValue(), right.longValue(), result))
+				return result;
+		}
+		return left.doubleValue() * right.doubleValue();
+	}
+
+	public static Number divide(Number left, Number right) {
+		return left.doubleValue() / right.doubleValue();
+	}
+
+	public static Number exponentiate(Number left, Number right) {
+		return Math.pow(left.doubleValue(), right.doubleValue());
+	}
+
+	/**
+	 * From {@link Math#addExact(long, long)}.
+	 * Subtractions are checked with this as well, which falls back to decimal numbers more often than necessary.
+	 */
+	private static boolean additionOverflows(long left, long right, long result) {
+		return ((left ^ result) & (right ^ result)) < 0;
+	}
+
+	/**
+	 * From {@link Math#multiplyExact(long, long)}.
+	 */
+	private static boolean multiplicationOverflows(long left, long right, long result) {
+		long ax = Math.abs(left);
+		long ay = Math.abs(right);
+		if ((ax | ay) >>> 31 == 0)
+			return false; // no bits greater than 2^31 that might cause overflow
+		// check the result using the divide operator and check for the special case of Long.MIN_VALUE * -1
+		return (right != 0 && result / right != left) || (left == Long.MIN_VALUE && right == -1);
+	}
+
+	/**
+	 * Calculates the result of an operation into the given value, like the boxed methods of this class.
+	 *
+	 * @param leftInteger whether the left operand is an integer, see {@link Utils#isInteger(Number...)}
+	 * @param leftLong the {@link Number#longValue() long value} of the left operand
+	 * @param leftDouble the {@link Number#doubleValue() double value} of the left operand
+	 * @param right the right operand
+	 * @param result the value to store the result in, which may be the right operand
+	 */
+	static void calculate(Operator operator, boolean leftInteger, long leftLong, double leftDouble, Value right, Value result) {
+		boolean integer = leftInteger && right.integer;
+		long rightLong = right.longValue;
+		double rightDouble = right.doubleValue;
+		switch (operator) {
+			case ADDITION -> {
+				long sum = leftLong + rightLong;
+				if (integer && !additionOverflows(leftLong, rightLong, sum)) {
+					result.set(sum);
+				} else {
+					result.set(leftDouble + rightDouble);
+				}
+			}
+			case SUBTRACTION -> {
+				long difference = leftLong - rightLong;
+				if (integer && !additionOverflows(leftLong, rightLong, difference)) {
+					result.set(difference);
+				} else {
+					result.set(leftDouble - rightDouble);
+				}
+			}
+			case MULTIPLICATION -> {
+				long product = leftLong * rightLong;
+				if (integer && !multiplicationOverflows(leftLong, rightLong, product)) {
+					result.set(product);
+				} else {
+					result.set(leftDouble * rightDouble);
+				}
+			}
+			case DIVISION -> result.set(leftDouble / rightDouble);
+			case EXPONENTIATION -> result.set(Math.pow(leftDouble, rightDouble));
+		}
+	}
+
+	/**
+	 * A mutable number, either an integer or a decimal number.
+	 */
+	static final class Value {
+
+		boolean integer;
+		long longValue;
+		double doubleValue;
+
+		void set(Number number) {
+			integer = Utils.isInteger(number);
+			longValue = number.longValue();
+			doubleValue = number.doubleValue();
+		}
+
+		void set(long value) {
+			integer = true;
+			longValue = value;
+			doubleValue = value;
+		}
+
+		void set(double value) {
+			integer = false;
+			longValue = (long) value;
+			doubleValue = value;
+		}
+
+		/**
+		 * @return the class of the boxed value
+		 */
+		Class<? extends Number> getType() {
+			return integer ? Long.class : Double.class;
+		}
+
+		Number box() {
+			return integer ? (Number) longValue : (Number) doubleValue;
+		}
+
+	}
+
+}
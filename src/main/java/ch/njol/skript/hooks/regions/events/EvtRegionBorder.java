@@ -11,20 +11,28 @@ import ch.njol.skript.lang.Trigger;
 import ch.njol.skript.registrations.EventValues;
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
+import org.bukkit.World;
 import org.bukkit.entity.Player;
 import org.bukkit.event.Event;
 import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerMoveEvent;
 import org.bukkit.event.player.PlayerPortalEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.player.PlayerTeleportEvent;
 import org.bukkit.plugin.EventExecutor;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
 
 public class EvtRegionBorder extends SkriptEvent {
@@ -60,37 +68,132 @@ public class EvtRegionBorder extends SkriptEvent {
 			Location to = moveEvent.getTo();
 			Location from = moveEvent.getFrom();
 
-			if (to.equals(from))
+			// regions consist of whole blocks, so the regions can only change if the player moves to another block
+			if (to == null || isSameBlock(from, to))
 				return;
 
-			Set<? extends Region> oldRegions = RegionsPlugin.getRegionsAt(from);
+			TriggerIndex index = triggerIndex;
+			if (index.isEmpty())
+				return;
+
+			Player player = moveEvent.getPlayer();
+			PlayerRegions cached = PLAYER_REGIONS.get(player.getUniqueId());
+			Set<? extends Region> oldRegions = cached != null && cached.isAt(from) ? cached.regions : RegionsPlugin.getRegionsAt(from);
 			Set<? extends Region> newRegions = RegionsPlugin.getRegionsAt(to);
+			// the move may still be cancelled, in which case the next move does not start at this location and requeries
+			PLAYER_REGIONS.put(player.getUniqueId(), new PlayerRegions(to, newRegions));
 
 			for (Region oldRegion : oldRegions) {
 				if (!newRegions.contains(oldRegion))
-					callEvent(oldRegion, moveEvent, false);
+					callEvent(index.leave, oldRegion, moveEvent, false);
 			}
 
 			for (Region newRegion : newRegions) {
 				if (!oldRegions.contains(newRegion))
-					callEvent(newRegion, moveEvent, true);
+					callEvent(index.enter, newRegion, moveEvent, true);
 			}
 		}
 	};
 
-	private static void callEvent(Region region, PlayerMoveEvent event, boolean enter) {
+	private static boolean isSameBlock(Location first, Location second) {
+		return first.getBlockX() == second.getBlockX()
+			&& first.getBlockY() == second.getBlockY()
+			&& first.getBlockZ() == second.getBlockZ()
+			&& Objects.equals(first.getWorld(), second.getWorld());
+	}
+
+	private static void callEvent(Map<Region, Trigger[]> triggers, Region region, PlayerMoveEvent event, boolean enter) {
+		Trigger[] regionTriggers = triggers.getOrDefault(region, triggers.get(null));
+		if (regionTriggers == null)
+			return;
 		RegionBorderEvent regionEvent = new RegionBorderEvent(region, event.getPlayer(), enter);
 		regionEvent.setCancelled(event.isCancelled());
-		synchronized (TRIGGERS) {
-			for (Trigger trigger : TRIGGERS) {
-				if (((EvtRegionBorder) trigger.getEvent()).applies(regionEvent))
-					trigger.execute(regionEvent);
-			}
+		for (Trigger trigger : regionTriggers) {
+			if (((EvtRegionBorder) trigger.getEvent()).applies(regionEvent))
+				trigger.execute(regionEvent);
 		}
 		event.setCancelled(regionEvent.isCancelled());
 	}
 
-	private static final List<Trigger> TRIGGERS = Collections.synchronizedList(new ArrayList<>());
+	/**
+	 * The regions a player was in at the block the player last moved to.
+	 */
+	private record PlayerRegions(@Nullable World world, int x, int y, int z, Set<? extends Region> regions) {
+
+		PlayerRegions(Location location, Set<? extends Region> regions) {
+			this(location.getWorld(), location.getBlockX(), location.getBlockY(), location.getBlockZ(), regions);
+		}
+
+		boolean isAt(Location location) {
+			return x == location.getBlockX() && y == location.getBlockY() && z == location.getBlockZ()
+				&& Objects.equals(world, location.getWorld());
+		}
+
+	}
+
+	/**
+	 * The cached regions of each online player, only accessed from the main thread.
+	 */
+	private static final Map<UUID, PlayerRegions> PLAYER_REGIONS = new HashMap<>();
+
+	private static final List<Trigger> TRIGGERS = new ArrayList<>();
+
+	/**
+	 * The triggers indexed by the regions they are for, rebuilt whenever {@link #TRIGGERS} changes.
+	 */
+	private static volatile TriggerIndex triggerIndex = new TriggerIndex(List.of());
+
+	/**
+	 * The triggers of enter and leave events, by the regions they are for.
+	 * The triggers for a region include the triggers for any region, in the order they were registered.
+	 * The {@code null} key maps to the triggers for any region, which are used for regions without specific triggers.
+	 */
+	private static final class TriggerIndex {
+
+		private final Map<Region, Trigger[]> enter;
+		private final Map<Region, Trigger[]> leave;
+
+		TriggerIndex(List<Trigger> triggers) {
+			enter = index(triggers, true);
+			leave = index(triggers, false);
+		}
+
+		boolean isEmpty() {
+			return enter.isEmpty() && leave.isEmpty();
+		}
+
+		private static Map<Region, Trigger[]> index(List<Trigger> triggers, boolean enter) {
+			List<Trigger> matching = new ArrayList<>();
+			Set<Region> regions = new HashSet<>();
+			for (Trigger trigger : triggers) {
+				EvtRegionBorder event = (EvtRegionBorder) trigger.getEvent();
+				if (event.enter != enter)
+					continue;
+				matching.add(trigger);
+				if (event.regions != null)
+					regions.addAll(Arrays.asList(event.regions.getAll()));
+			}
+			if (matching.isEmpty())
+				return Collections.emptyMap(); // allows looking up the null key
+
+			Map<Region, Trigger[]> index = new HashMap<>();
+			Trigger[] anyRegion = matching.stream()
+				.filter(trigger -> ((EvtRegionBorder) trigger.getEvent()).regions == null)
+				.toArray(Trigger[]::new);
+			if (anyRegion.length != 0)
+				index.put(null, anyRegion);
+			for (Region region : regions) {
+				index.put(region, matching.stream()
+					.filter(trigger -> {
+						Literal<Region> triggerRegions = ((EvtRegionBorder) trigger.getEvent()).regions;
+						return triggerRegions == null || Arrays.asList(triggerRegions.getAll()).contains(region);
+					})
+					.toArray(Trigger[]::new));
+			}
+			return index;
+		}
+
+	}
 
 	private static final AtomicBoolean REGISTERED_EXECUTORS = new AtomicBoolean();
 	
@@ -109,19 +212,27 @@ public class EvtRegionBorder extends SkriptEvent {
 
 	@Override
 	public boolean postLoad() {
-		TRIGGERS.add(trigger);
+		synchronized (TRIGGERS) {
+			TRIGGERS.add(trigger);
+			triggerIndex = new TriggerIndex(TRIGGERS);
+		}
 		if (REGISTERED_EXECUTORS.compareAndSet(false, true)) {
 			EventPriority priority = SkriptConfig.defaultEventPriority.value();
 			Bukkit.getPluginManager().registerEvent(PlayerMoveEvent.class, new Listener(){}, priority, EXECUTOR, Skript.getInstance(), true);
 			Bukkit.getPluginManager().registerEvent(PlayerTeleportEvent.class, new Listener(){}, priority, EXECUTOR, Skript.getInstance(), true);
 			Bukkit.getPluginManager().registerEvent(PlayerPortalEvent.class, new Listener(){}, priority, EXECUTOR, Skript.getInstance(), true);
+			Bukkit.getPluginManager().registerEvent(PlayerQuitEvent.class, new Listener(){}, EventPriority.MONITOR,
+				(listener, event) -> PLAYER_REGIONS.remove(((PlayerQuitEvent) event).getPlayer().getUniqueId()), Skript.getInstance());
 		}
 		return true;
 	}
 
 	@Override
 	public void unload() {
-		TRIGGERS.remove(trigger);
+		synchronized (TRIGGERS) {
+			TRIGGERS.remove(trigger);
+			triggerIndex = new TriggerIndex(TRIGGERS);
+		}
 	}
 
 	@Override
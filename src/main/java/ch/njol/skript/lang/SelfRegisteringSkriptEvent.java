@@ -52,6 +52,12 @@ public abstract class SelfRegisteringSkriptEvent extends SkriptEvent {
 		return load;
 	}
 
+	@Override
+	public boolean canLoadInParallel() {
+		// afterParse may modify any state
+		return false;
+	}
+
 	@Override
 	public boolean postLoad() {
 		register(trigger);
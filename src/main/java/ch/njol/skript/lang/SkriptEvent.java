@@ -144,6 +144,32 @@ public abstract class SkriptEvent extends Structure {
 		return true;
 	}
 
+	/**
+	 * Whether events of a class use the {@link #load()} and {@link #shouldLoadEvent()} of this class,
+	 * i.e. whether they only parse their trigger with the parser of the current thread while loading.
+	 */
+	private static final ClassValue<Boolean> ONLY_PARSES_TRIGGER = new ClassValue<>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			try {
+				return type.getMethod("load").getDeclaringClass() == SkriptEvent.class
+					&& type.getMethod("shouldLoadEvent").getDeclaringClass() == SkriptEvent.class;
+			} catch (NoSuchMethodException e) {
+				throw new IllegalStateException(e); // both methods are public
+			}
+		}
+	};
+
+	/**
+	 * Events that only parse their trigger while loading can be loaded in parallel.
+	 * Events that override {@link #load()} or {@link #shouldLoadEvent()} are loaded on the main loading thread,
+	 * unless they override this method as well.
+	 */
+	@Override
+	public boolean canLoadInParallel() {
+		return ONLY_PARSES_TRIGGER.get(getClass());
+	}
+
 	/**
 	 * This method handles the registration of this event with Skript and Bukkit.
 	 * Only override this method if you know what you are doing!
@@ -238,6 +264,21 @@ public abstract class SkriptEvent extends Structure {
 		return false;
 	}
 
+	/**
+	 * Override this method to declare that {@link #check(Event)} may be called on any thread,
+	 * even if the trigger itself must be executed on the main thread (see {@link #canExecuteAsynchronously()}).
+	 * When an event is called asynchronously, such events are checked on the calling thread,
+	 * and no work is scheduled on the main thread if the check fails.
+	 * <p>
+	 * This should only return true if the check does not use anything that must be accessed from the main thread,
+	 * e.g. when it only compares values of the event.
+	 *
+	 * @return whether this event can be checked on any thread, by default {@link #canExecuteAsynchronously()}
+	 */
+	public boolean canCheckAsynchronously() {
+		return canExecuteAsynchronously();
+	}
+
 	/**
 	 * Fixes patterns in event by modifying every {@link ch.njol.skript.patterns.TypePatternElement}
 	 * to be nullable.
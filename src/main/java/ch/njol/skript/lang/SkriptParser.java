@@ -81,6 +81,12 @@ public class SkriptParser {
 
 	public final ParseContext context;
 
+	/**
+	 * {@link #expr} lower-cased using {@link Locale#ENGLISH}, computed on first use.
+	 * Used to prune patterns whose keywords do not appear in the expression without lower-casing it for every pattern.
+	 */
+	private @Nullable String lowerExpr;
+
 	public SkriptParser(String expr) {
 		this(expr, ALL_FLAGS);
 	}
@@ -205,12 +211,10 @@ public class SkriptParser {
 				int matchedPattern = -1; // will increment at the start of each iteration
 				patternsLoop: for (String pattern : info.patterns()) {
 					matchedPattern++;
-					log.clear();
-					ParseResult parseResult;
 
+					SkriptPattern skriptPattern;
 					try {
-						parsingStack.push(new ParsingStack.Element(info, matchedPattern));
-						parseResult = parse_i(pattern);
+						skriptPattern = getCompiledPattern(pattern);
 					} catch (MalformedPatternException e) {
 						String message = "pattern compiling exception, element class: " + info.type().getName();
 						try {
@@ -218,6 +222,18 @@ public class SkriptParser {
 							message += " (provided by " + providingPlugin.getName() + ")";
 						} catch (IllegalArgumentException | IllegalStateException ignored) { }
 						throw new RuntimeException(message, e);
+					}
+
+					log.clear();
+
+					// Most patterns are rejected here, before any parsing stack work is done
+					if (!skriptPattern.hasKeywords(getLowerExpr()))
+						continue;
+
+					ParseResult parseResult;
+					try {
+						parsingStack.push(new ParsingStack.Element(info, matchedPattern));
+						parseResult = toParseResult(skriptPattern.matchWithoutKeywordCheck(expr, flags, context));
 					} catch (StackOverflowError e) {
 						// Parsing caused a stack overflow, possibly due to too long lines
 						throw new ParseStackOverflowException(e, new ParsingStack(parsingStack));
@@ -239,7 +255,14 @@ public class SkriptParser {
 							ExprInfo exprInfo = types.get(i).getExprInfo();
 							if (!exprInfo.isOptional) {
 								DefaultExpression<?> expr = getDefaultExpression(exprInfo, pattern);
-								if (!expr.init())
+								boolean initialized;
+								// the default expressions of class infos are shared, and scripts may be loaded on multiple threads
+								synchronized (expr) {
+									if (exprInfo.time != 0 && !expr.setTime(exprInfo.time))
+										throw new SkriptAPIException("The default expression of '" + exprInfo.classes[0].getCodeName() + "' does not have distinct time states. [pattern: " + pattern + "]");
+									initialized = expr.init();
+								}
+								if (!initialized)
 									continue patternsLoop;
 								parseResult.exprs[i] = expr;
 							}
@@ -345,8 +368,6 @@ public class SkriptParser {
 			throw new SkriptAPIException("The default expression of '" + exprInfo.classes[0].getCodeName() + "' is a literal. Either allow null (with %-~" + exprInfo.classes[0].getCodeName() + "%) or make it mandatory [pattern: " + pattern + "]");
 		if (!exprInfo.isPlural[0] && !expr.isSingle())
 			throw new SkriptAPIException("The default expression of '" + exprInfo.classes[0].getCodeName() + "' is not a single-element expression. Change your pattern to allow multiple elements or make the expression mandatory [pattern: " + pattern + "]");
-		if (exprInfo.time != 0 && !expr.setTime(exprInfo.time))
-			throw new SkriptAPIException("The default expression of '" + exprInfo.classes[0].getCodeName() + "' does not have distinct time states. [pattern: " + pattern + "]");
 		return expr;
 	}
 
@@ -1493,12 +1514,28 @@ public class SkriptParser {
 
 	private static final Map<String, SkriptPattern> patterns = new ConcurrentHashMap<>();
 
+	private static SkriptPattern getCompiledPattern(String pattern) {
+		return patterns.computeIfAbsent(pattern, PatternCompiler::compile);
+	}
+
+	private String getLowerExpr() {
+		if (lowerExpr == null)
+			lowerExpr = expr.toLowerCase(Locale.ENGLISH);
+		return lowerExpr;
+	}
+
 	private @Nullable ParseResult parse_i(String pattern) {
-		SkriptPattern skriptPattern = patterns.computeIfAbsent(pattern, PatternCompiler::compile);
-		ch.njol.skript.patterns.MatchResult matchResult = skriptPattern.match(expr, flags, context);
-		if (matchResult == null)
+		return parse_i(getCompiledPattern(pattern));
+	}
+
+	private @Nullable ParseResult parse_i(SkriptPattern skriptPattern) {
+		if (!skriptPattern.hasKeywords(getLowerExpr()))
 			return null;
-		return matchResult.toParseResult();
+		return toParseResult(skriptPattern.matchWithoutKeywordCheck(expr, flags, context));
+	}
+
+	private static @Nullable ParseResult toParseResult(ch.njol.skript.patterns.@Nullable MatchResult matchResult) {
+		return matchResult == null ? null : matchResult.toParseResult();
 	}
 
 	/**
@@ -1,6 +1,8 @@
 package ch.njol.skript.lang;
 
 import ch.njol.skript.Skript;
+import ch.njol.skript.timings.TriggerProfiler;
+import ch.njol.skript.timings.TriggerProfiler.Profile;
 import ch.njol.skript.util.SkriptColor;
 import ch.njol.util.StringUtils;
 import org.bukkit.event.Event;
@@ -21,6 +23,7 @@ public abstract class TriggerItem implements Debuggable {
 
 	protected @Nullable TriggerSection parent = null;
 	private @Nullable TriggerItem next = null;
+	private int line = -1; // -1 is default: it means there is no line number available
 
 	protected TriggerItem() {}
 
@@ -63,8 +66,15 @@ public abstract class TriggerItem implements Debuggable {
 	public static boolean walk(TriggerItem start, Event event) {
 		TriggerItem triggerItem = start;
 		try {
-			while (triggerItem != null)
-				triggerItem = triggerItem.walk(event);
+			Profile profile = TriggerProfiler.getProfile();
+			if (profile == null) {
+				while (triggerItem != null)
+					triggerItem = triggerItem.walk(event);
+			} else {
+				Profile.Clock clock = profile.getClock();
+				while (triggerItem != null)
+					triggerItem = walk(triggerItem, event, clock);
+			}
 
 			return true;
 		} catch (StackOverflowError err) {
@@ -92,6 +102,18 @@ public abstract class TriggerItem implements Debuggable {
 		return false;
 	}
 
+	/**
+	 * Executes an item while measuring how long it takes.
+	 */
+	private static @Nullable TriggerItem walk(TriggerItem triggerItem, Event event, Profile.Clock clock) {
+		long start = clock.enter();
+		try {
+			return triggerItem.walk(event);
+		} finally {
+			clock.exit(triggerItem, start);
+		}
+	}
+
 	/**
 	 * Returns whether this item stops the execution of the current trigger or section(s).
 	 * <br>
@@ -163,6 +185,23 @@ public abstract class TriggerItem implements Debuggable {
 		return next;
 	}
 
+	/**
+	 * Sets the line number of this item in its script.
+	 * Only used for debugging and profiling.
+	 * @param line Line number
+	 */
+	public void setLineNumber(int line) {
+		this.line = line;
+	}
+
+	/**
+	 * @return The line number of this item in its script, or -1 if it is not known.
+	 * This should ONLY be used for debugging and profiling!
+	 */
+	public int getLineNumber() {
+		return line;
+	}
+
 	/**
 	 * This method guarantees to return next {@link TriggerItem} after this item.
 	 * This is not always the case for {@link #getNext()}, for example, {@code getNext()}
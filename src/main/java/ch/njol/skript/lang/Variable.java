@@ -19,7 +19,6 @@ import ch.njol.util.Kleenean;
 import ch.njol.util.Pair;
 import ch.njol.util.StringUtils;
 import ch.njol.util.coll.CollectionUtils;
-import ch.njol.util.coll.iterator.EmptyIterator;
 import ch.njol.util.coll.iterator.SingleItemIterator;
 import com.google.common.collect.Iterators;
 import org.apache.commons.lang3.ArrayUtils;
@@ -333,6 +332,18 @@ public class Variable<T> implements Expression<T>, KeyReceiverExpression<T>, Key
 	 */
 	public @Nullable Object getRaw(Event event) {
 		DefaultVariables data = script == null ? null : script.getData(DefaultVariables.class);
+		if (data != null && !data.hasDefaultVariables())
+			data = null; // type hints are only needed to find default variables
+		if (list && data == null) {
+			// Look the list up by its key path, without joining its name and splitting it again
+			String[] path = this.name.toKeyPath(event, Variables.caseInsensitiveVariables);
+			if (path != null) {
+				// prevents e.g. {%expr%} where "%expr%" doesn't end with "::*" from returning a Map
+				if (path.length < 2 || !path[path.length - 1].equals("*"))
+					return null;
+				return Variables.getList(path, event, local);
+			}
+		}
 		if (data != null)
 			data.enterScope();
 		try {
@@ -346,7 +357,7 @@ public class Variable<T> implements Expression<T>, KeyReceiverExpression<T>, Key
 				return value;
 
 			// Check for default variables if value is still null.
-			if (data == null || !data.hasDefaultVariables())
+			if (data == null)
 				return null;
 
 			for (String typeHint : this.name.getDefaultVariableNames(name, event)) {
@@ -368,7 +379,7 @@ public class Variable<T> implements Expression<T>, KeyReceiverExpression<T>, Key
 		if (rawValue == null)
 			return Array.newInstance(types[0], 0);
 		List<Object> convertedValues = new ArrayList<>();
-		String name = StringUtils.substring(this.name.toString(event), 0, -1);
+		String name = null; // only needed to fix players, see convertIfOldPlayer
 		//noinspection unchecked
 		for (Entry<String, ?> variable : ((Map<String, ?>) rawValue).entrySet()) {
 			if (variable.getKey() != null && variable.getValue() != null) {
@@ -378,8 +389,13 @@ public class Variable<T> implements Expression<T>, KeyReceiverExpression<T>, Key
 					value = ((Map<String, ?>) variable.getValue()).get(null);
 				else
 					value = variable.getValue();
-				if (value != null)
+				if (value instanceof Player) {
+					if (name == null)
+						name = StringUtils.substring(this.name.toString(event), 0, -1);
 					convertedValues.add(convertIfOldPlayer(name + variable.getKey(), local, event, value));
+				} else if (value != null) {
+					convertedValues.add(value);
+				}
 			}
 		}
 		return convertedValues.toArray();
@@ -430,51 +446,8 @@ public class Variable<T> implements Expression<T>, KeyReceiverExpression<T>, Key
 			T value = getSingle(event);
 			return value != null ? new SingleItemIterator<>(value) : null;
 		}
-		String name = StringUtils.substring(this.name.toString(event), 0, -1);
-		Object value = Variables.getVariable(name + "*", event, local);
-		if (value == null)
-			return new EmptyIterator<>();
-		assert value instanceof TreeMap;
-		// temporary list to prevent CMEs
-		//noinspection unchecked
-		Iterator<String> keys = new ArrayList<>(((Map<String, Object>) value).keySet()).iterator();
-		return new Iterator<>() {
-			private @Nullable T next = null;
-
-			@Override
-			public boolean hasNext() {
-				if (next != null)
-					return true;
-				while (keys.hasNext()) {
-					@Nullable String key = keys.next();
-					if (key != null) {
-						next = Converters.convert(Variables.getVariable(name + key, event, local), types);
-
-						//noinspection unchecked
-						next = (T) convertIfOldPlayer(name + key, local, event, next);
-						if (next != null && !(next instanceof TreeMap))
-							return true;
-					}
-				}
-				next = null;
-				return false;
-			}
-
-			@Override
-			public T next() {
-				if (!hasNext())
-					throw new NoSuchElementException();
-				T n = next;
-				assert n != null;
-				next = null;
-				return n;
-			}
-
-			@Override
-			public void remove() {
-				throw new UnsupportedOperationException();
-			}
-		};
+		Iterator<T> values = Iterators.transform(variablesIterator(event), pair -> Converters.convert(pair.getValue(), types));
+		return Iterators.unmodifiableIterator(Iterators.filter(values, Objects::nonNull));
 	}
 
 	private @Nullable T getConverted(Event event) {
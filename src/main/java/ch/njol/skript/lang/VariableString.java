@@ -17,6 +17,7 @@ import ch.njol.skript.util.StringMode;
 import ch.njol.skript.util.Utils;
 import ch.njol.skript.util.chat.ChatMessages;
 import ch.njol.skript.util.chat.MessageComponent;
+import ch.njol.skript.variables.Variables;
 import ch.njol.util.Kleenean;
 import ch.njol.util.StringUtils;
 import ch.njol.util.coll.CollectionUtils;
@@ -33,6 +34,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -60,6 +62,48 @@ public class VariableString implements Expression<String> {
 	 */
 	private final MessageComponent[] components;
 
+	/**
+	 * Whether the expressions of {@link #strings}, in order, are coloured expressions marked as unsafe,
+	 * in which case formatting is parsed in their values too.
+	 */
+	private final boolean[] unsafeExpressions;
+
+	/**
+	 * The parsed components of a simple string, parsed when first needed.
+	 * The returned components must be copies of these.
+	 */
+	private volatile MessageComponent @Nullable [] simpleComponents;
+
+	/**
+	 * The components last built by {@link #getMessageComponents(Event, StringBuilder)},
+	 * which are reused as long as the expressions have the same values.
+	 */
+	private volatile @Nullable BuiltMessage lastMessage;
+
+	/**
+	 * The amount of expressions in {@link #strings}.
+	 */
+	private final int expressionCount;
+
+	/**
+	 * The total length of the constant parts of {@link #strings},
+	 * used to size the builder in {@link #toString(Event)}.
+	 */
+	private final int constantLength;
+
+	/**
+	 * The constant parts of {@link #strings} of a variable name, split at {@link Variable#SEPARATOR}
+	 * at parse time for {@link #toKeyPath(Event, boolean)}, as is and lower-cased.
+	 * The elements are {@code null} where {@link #strings} has an expression.
+	 * These are {@code null} if this is not a variable name, or if a separator could span a constant part and an expression.
+	 */
+	private final String @Nullable [][] keyTemplate, lowerCaseKeyTemplate;
+
+	/**
+	 * The key paths of a simple string, split when first needed.
+	 */
+	private volatile String @Nullable [] simpleKeyPath, simpleLowerCaseKeyPath;
+
 	/**
 	 * Creates a new VariableString which does not contain variables.
 	 *
@@ -78,6 +122,11 @@ public class VariableString implements Expression<String> {
 		this.script = parser.isActive() ? parser.getCurrentScript() : null;
 
 		this.components = new MessageComponent[] {ChatMessages.plainText(simpleUnformatted)};
+		this.unsafeExpressions = new boolean[0];
+		this.expressionCount = 0;
+		this.constantLength = simple.length();
+		this.keyTemplate = null;
+		this.lowerCaseKeyTemplate = null;
 	}
 
 	/**
@@ -97,23 +146,51 @@ public class VariableString implements Expression<String> {
 
 		// Construct unformatted string and components
 		List<MessageComponent> components = new ArrayList<>(strings.length);
+		boolean[] unsafeExpressions = new boolean[strings.length];
+		int expressionCount = 0;
+		int constantLength = 0;
 		for (int i = 0; i < strings.length; i++) {
 			Object object = strings[i];
 			if (object instanceof String) {
 				this.strings[i] = Utils.replaceChatStyles((String) object);
 				components.addAll(ChatMessages.parse((String) object));
+				constantLength += ((String) this.strings[i]).length();
 			} else {
 				this.strings[i] = object;
 				components.add(null); // Not known parse-time
+				unsafeExpressions[expressionCount] = object instanceof ExprColoured exprColoured && exprColoured.isUnsafeFormat();
+				expressionCount++;
 			}
 
 			// For unformatted string, don't format stuff
 			this.stringsUnformatted[i] = object;
 		}
 		this.components = components.toArray(new MessageComponent[0]);
+		this.unsafeExpressions = Arrays.copyOf(unsafeExpressions, expressionCount);
+		this.expressionCount = expressionCount;
+		this.constantLength = constantLength;
 
 		this.mode = mode;
 
+		String[][] keyTemplate = null, lowerCaseKeyTemplate = null;
+		if (mode == StringMode.VARIABLE_NAME) {
+			keyTemplate = new String[strings.length][];
+			lowerCaseKeyTemplate = new String[strings.length][];
+			for (int i = 0; i < strings.length; i++) {
+				if (!(this.strings[i] instanceof String string))
+					continue;
+				if ((i > 0 && string.startsWith(":")) || (i < strings.length - 1 && string.endsWith(":"))) {
+					// e.g. {a:%expr%}, the expression's value may start with ':' and complete a separator
+					keyTemplate = lowerCaseKeyTemplate = null;
+					break;
+				}
+				keyTemplate[i] = splitKey(string);
+				lowerCaseKeyTemplate[i] = splitKey(string.toLowerCase(Locale.ENGLISH));
+			}
+		}
+		this.keyTemplate = keyTemplate;
+		this.lowerCaseKeyTemplate = lowerCaseKeyTemplate;
+
 		this.isSimple = false;
 		this.simple = null;
 		this.simpleUnformatted = null;
@@ -399,41 +476,64 @@ public class VariableString implements Expression<String> {
 	 * @return Message components.
 	 */
 	public List<MessageComponent> getMessageComponents(Event event, @Nullable StringBuilder unformattedBuilder) {
-		if (isSimple) { // Trusted, constant string in a script
+		if (isSimple) // Trusted, constant string in a script
+			return copyComponents(getSimpleComponents());
+		return copyComponents(buildMessage(event, unformattedBuilder).components);
+	}
+
+	/**
+	 * @return The parsed components of this simple string, which must not be modified.
+	 */
+	private MessageComponent[] getSimpleComponents() {
+		MessageComponent[] components = simpleComponents;
+		if (components == null) {
 			assert simpleUnformatted != null;
-			return ChatMessages.parse(simpleUnformatted);
+			components = ChatMessages.parseToArray(simpleUnformatted);
+			simpleComponents = components;
 		}
+		return components;
+	}
 
-		// Parse formatting
+	/**
+	 * Evaluates the expressions of this string and builds its message, or reuses the last message
+	 * if the expressions have the same values as when it was built.
+	 *
+	 * @param event Currently running event.
+	 * @param unformattedBuilder Unformatted string to append the values of the expressions to.
+	 * @return The message, whose components must not be modified.
+	 */
+	private BuiltMessage buildMessage(Event event, @Nullable StringBuilder unformattedBuilder) {
 		Object[] strings = this.stringsUnformatted;
 		assert strings != null;
+
+		// Convert the expressions to plain text
+		String[] values = new String[expressionCount];
+		int expression = 0;
+		for (Object string : strings) {
+			if (string instanceof Expression<?> expr) {
+				String text = Classes.toString(expr.getArray(event), true, mode);
+				if (unformattedBuilder != null)
+					unformattedBuilder.append(text);
+				values[expression++] = text;
+			}
+		}
+
+		BuiltMessage lastMessage = this.lastMessage;
+		if (lastMessage != null && Arrays.equals(lastMessage.values, values))
+			return lastMessage;
+
+		// Parse formatting
 		List<MessageComponent> message = new ArrayList<>(components.length); // At least this much space
-		int stringPart = -1;
-		MessageComponent previous = null;
+		expression = 0;
 		for (MessageComponent component : components) {
 			if (component == null) { // This component holds place for variable part
-				// Go over previous expression part (stringPart >= 0) or take first part (stringPart == 0)
-				stringPart++;
-				if (previous != null) { // Also jump over literal part
-					stringPart++;
-				}
-				Object string = strings[stringPart];
-				previous = null;
-
-				// Convert it to plain text
-				String text = null;
-				if (string instanceof Expression<?> expression) {
-					text = Classes.toString(expression.getArray(event), true, mode);
-					if (unformattedBuilder != null)
-						unformattedBuilder.append(text);
-					// Special case: user wants to process formatting
-					if (string instanceof ExprColoured exprColoured && exprColoured.isUnsafeFormat()) {
-						message.addAll(ChatMessages.parse(text));
-						continue;
-					}
+				String text = values[expression];
+				// Special case: user wants to process formatting
+				if (unsafeExpressions[expression++]) {
+					message.addAll(ChatMessages.parse(text));
+					continue;
 				}
 
-				assert text != null;
 				List<MessageComponent> components = ChatMessages.fromParsedString(text);
 				if (!message.isEmpty()) { // Copy styles from previous component
 					int startSize = message.size();
@@ -451,11 +551,19 @@ public class VariableString implements Expression<String> {
 					ChatMessages.copyStyles(message.get(message.size() - 1), componentCopy);
 				}
 				message.add(componentCopy);
-				previous = componentCopy;
 			}
 		}
 
-		return message;
+		BuiltMessage builtMessage = new BuiltMessage(values, message.toArray(new MessageComponent[0]));
+		this.lastMessage = builtMessage;
+		return builtMessage;
+	}
+
+	private static List<MessageComponent> copyComponents(MessageComponent[] components) {
+		List<MessageComponent> copy = new ArrayList<>(components.length);
+		for (MessageComponent component : components)
+			copy.add(component.copy());
+		return copy;
 	}
 
 	/**
@@ -465,10 +573,8 @@ public class VariableString implements Expression<String> {
 	 * @return Message components.
 	 */
 	public List<MessageComponent> getMessageComponentsUnsafe(Event event) {
-		if (isSimple) { // Trusted, constant string in a script
-			assert simpleUnformatted != null;
-			return ChatMessages.parse(simpleUnformatted);
-		}
+		if (isSimple) // Trusted, constant string in a script
+			return copyComponents(getSimpleComponents());
 
 		return ChatMessages.parse(toUnformattedString(event));
 	}
@@ -480,7 +586,15 @@ public class VariableString implements Expression<String> {
 	 * @return The input string with all expressions replaced.
 	 */
 	public String toChatString(Event event) {
-		return ChatMessages.toJson(getMessageComponents(event));
+		if (isSimple)
+			return ChatMessages.toJson(Arrays.asList(getSimpleComponents()));
+		BuiltMessage message = buildMessage(event, null);
+		String json = message.json;
+		if (json == null) {
+			json = ChatMessages.toJson(Arrays.asList(message.components));
+			message.json = json;
+		}
+		return json;
 	}
 
 	private static @Nullable ChatColor getLastColor(CharSequence sequence) {
@@ -516,27 +630,133 @@ public class VariableString implements Expression<String> {
 
 		Object[] string = this.strings;
 		assert string != null;
-		StringBuilder builder = new StringBuilder();
-		List<Class<?>> types = new ArrayList<>();
+
+		// Type hints are only collected for variable names in scripts that define default variables
+		DefaultVariables data = null;
+		if (script != null && mode == StringMode.VARIABLE_NAME) {
+			data = script.getData(DefaultVariables.class);
+			if (data != null && !data.hasDefaultVariables())
+				data = null;
+		}
+
+		if (string.length == 1 && data == null && string[0] instanceof Expression<?>) {
+			// A single expression, e.g. "%player%"
+			return Classes.toString(((Expression<?>) string[0]).getArray(event), true, mode);
+		}
+
+		StringBuilder builder = new StringBuilder(constantLength + 16 * expressionCount);
+		Class<?>[] types = data == null ? null : new Class<?>[expressionCount];
+		int typeCount = 0;
 		for (Object object : string) {
 			if (object instanceof Expression<?>) {
 				Object[] objects = ((Expression<?>) object).getArray(event);
-				if (objects != null && objects.length > 0)
-					types.add(objects[0].getClass());
+				if (types != null && objects != null && objects.length > 0)
+					types[typeCount++] = objects[0].getClass();
 				builder.append(Classes.toString(objects, true, mode));
 			} else {
 				builder.append(object);
 			}
 		}
 		String complete = builder.toString();
-		if (script != null && mode == StringMode.VARIABLE_NAME && !types.isEmpty()) {
-			DefaultVariables data = script.getData(DefaultVariables.class);
-			if (data != null)
-				data.add(complete, types.toArray(new Class<?>[0]));
-		}
+		if (data != null && typeCount > 0)
+			data.add(complete, typeCount == types.length ? types : Arrays.copyOf(types, typeCount));
 		return complete;
 	}
 
+	/**
+	 * Parses all expressions in this variable name and returns it split at {@link Variable#SEPARATOR},
+	 * like {@link Variables#splitVariableName(String)} splits {@link #toString(Event)}, but keeping trailing empty parts.
+	 * Constant parts are split at parse time, so only the values of expressions are searched for separators.
+	 * If this is a simple string, the event may be null.
+	 * <p>
+	 * <b>Do not modify the returned array!</b>
+	 *
+	 * @param event Event to pass to the expressions.
+	 * @param lowerCase Whether to lower-case the parts, see {@link Variables#caseInsensitiveVariables}.
+	 * @return The parts of the name, or {@code null} if this isn't a variable name
+	 * or a separator may span a constant part and an expression, in which case {@link #toString(Event)} must be split instead.
+	 */
+	public String @Nullable [] toKeyPath(@Nullable Event event, boolean lowerCase) {
+		if (isSimple) {
+			assert simple != null;
+			String[] path = lowerCase ? simpleLowerCaseKeyPath : simpleKeyPath;
+			if (path == null) {
+				path = splitKey(lowerCase ? simple.toLowerCase(Locale.ENGLISH) : simple);
+				if (lowerCase) {
+					simpleLowerCaseKeyPath = path;
+				} else {
+					simpleKeyPath = path;
+				}
+			}
+			return path;
+		}
+		String[][] template = lowerCase ? lowerCaseKeyTemplate : keyTemplate;
+		if (template == null)
+			return null;
+		if (event == null)
+			throw new IllegalArgumentException("Event may not be null in non-simple VariableStrings!");
+
+		Object[] string = this.strings;
+		assert string != null;
+
+		List<String> path = new ArrayList<>(4);
+		String part = "";
+		for (int i = 0; i < string.length; i++) {
+			String[] segments = template[i];
+			if (segments != null) {
+				part = concat(part, segments[0]);
+				for (int j = 1; j < segments.length; j++) {
+					path.add(part);
+					part = segments[j];
+				}
+				continue;
+			}
+
+			String value = Classes.toString(((Expression<?>) string[i]).getArray(event), true, mode);
+			if (!value.isEmpty() && (value.charAt(0) == ':' || value.charAt(value.length() - 1) == ':'))
+				return null; // a separator may span this value and its neighbours
+			if (lowerCase)
+				value = value.toLowerCase(Locale.ENGLISH);
+			int separator = value.indexOf(Variable.SEPARATOR);
+			if (separator == -1) {
+				part = concat(part, value);
+				continue;
+			}
+			path.add(concat(part, value.substring(0, separator)));
+			int start = separator + Variable.SEPARATOR.length();
+			while ((separator = value.indexOf(Variable.SEPARATOR, start)) != -1) {
+				path.add(value.substring(start, separator));
+				start = separator + Variable.SEPARATOR.length();
+			}
+			part = value.substring(start);
+		}
+		path.add(part);
+		return path.toArray(new String[0]);
+	}
+
+	/**
+	 * Splits the given string at {@link Variable#SEPARATOR}, keeping empty parts.
+	 */
+	private static String[] splitKey(String string) {
+		int separator = string.indexOf(Variable.SEPARATOR);
+		if (separator == -1)
+			return new String[] {string};
+		List<String> parts = new ArrayList<>(4);
+		int start = 0;
+		do {
+			parts.add(string.substring(start, separator));
+			start = separator + Variable.SEPARATOR.length();
+		} while ((separator = string.indexOf(Variable.SEPARATOR, start)) != -1);
+		parts.add(string.substring(start));
+		return parts.toArray(new String[0]);
+	}
+
+	private static String concat(String first, String second) {
+		if (first.isEmpty())
+			return second;
+		return second.isEmpty() ? first : first + second;
+	}
+
 	/**
 	 * Use {@link #toString(Event)} to get the actual string. This method is for debugging.
 	 */
@@ -746,4 +966,24 @@ public class VariableString implements Expression<String> {
 		return this;
 	}
 
+	/**
+	 * A message built from the values of the expressions of a string.
+	 */
+	private static final class BuiltMessage {
+
+		private final String[] values;
+		private final MessageComponent[] components;
+
+		/**
+		 * The message in chat JSON format, converted when first needed.
+		 */
+		private volatile @Nullable String json;
+
+		BuiltMessage(String[] values, MessageComponent[] components) {
+			this.values = values;
+			this.components = components;
+		}
+
+	}
+
 }
@@ -4,6 +4,7 @@ import ch.njol.skript.SkriptConfig;
 import ch.njol.skript.classes.ClassInfo;
 import ch.njol.skript.lang.KeyProviderExpression;
 import ch.njol.skript.lang.KeyedValue;
+import ch.njol.skript.registrations.Classes;
 import ch.njol.util.coll.CollectionUtils;
 import org.bukkit.Bukkit;
 import org.jetbrains.annotations.NotNull;
@@ -24,6 +25,8 @@ public abstract class Function<T> {
 
 	private final Signature<T> sign;
 
+	private @Nullable FunctionCache cache;
+
 	public Function(Signature<T> sign) {
 		this.sign = sign;
 	}
@@ -57,6 +60,23 @@ public abstract class Function<T> {
 		return sign.getReturnType();
 	}
 
+	/**
+	 * @return The cache of the results of this function, or null if its results are not cached.
+	 */
+	public @Nullable FunctionCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * Sets the cache of the results of this function.
+	 * Only functions without side effects, whose results only depend on their arguments, should be cached.
+	 * Functions that return keys must implement {@link #restoreReturnedKeys(String[])}.
+	 * @param cache The cache, or null to not cache the results of this function.
+	 */
+	public void setCache(@Nullable FunctionCache cache) {
+		this.cache = cache;
+	}
+
 	// FIXME what happens with a delay in a function?
 
 	/**
@@ -112,6 +132,17 @@ public abstract class Function<T> {
 			parameterValues[i] = parameterValue;
 		}
 
+		// Use the cached result of a previous call with the same arguments
+		FunctionCache cache = this.cache;
+		if (cache != null) {
+			FunctionCache.Result cached = cache.get(parameterValues);
+			if (cached != null) {
+				restoreReturnedKeys(cached.keys() == null ? null : cached.keys().clone());
+				//noinspection unchecked
+				return cached.values() == null ? null : (T[]) Classes.clone(cached.values());
+			}
+		}
+
 		// Execute function contents
 		T[] r = execute(event, parameterValues);
 		// Assert that return value type makes sense
@@ -120,6 +151,9 @@ public abstract class Function<T> {
 			&& sign.getReturnType().getC().isAssignableFrom(r.getClass().getComponentType())
 			: this + "; " + Arrays.toString(r);
 
+		if (cache != null)
+			cache.put(parameterValues, r == null || r.length > 0 ? r : null, returnedKeys());
+
 		// If return value is empty array, return null
 		// Otherwise, return the value (nullable)
 		return r == null || r.length > 0 ? r : null;
@@ -156,6 +190,13 @@ public abstract class Function<T> {
 		return null;
 	}
 
+	/**
+	 * Sets the keys returned by {@link #returnedKeys()} when the result of this function is taken from its {@link #getCache() cache}.
+	 * @param keys The keys of the cached result.
+	 */
+	protected void restoreReturnedKeys(@NotNull String @Nullable [] keys) {
+	}
+
 	/**
 	 * Resets the return value of the {@code Function}.
 	 * Should be called right after execution.
@@ -0,0 +1,209 @@
+package ch.njol.skript.lang.function;
+
+import ch.njol.skript.Skript;
+import ch.njol.skript.registrations.Classes;
+import ch.njol.skript.util.Timespan;
+import ch.njol.skript.util.Timespan.TimePeriod;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A cache of the results of a {@link Function}, keyed on the values of its arguments.
+ * When the cache is full, the least recently used results are evicted. Results also expire after a fixed duration.
+ * <p>
+ * Only functions without side effects, whose results only depend on their arguments, should be cached.
+ * The arguments and results are {@link Classes#clone(Object) cloned} when they are cached,
+ * and cached results are cloned again when they are used, such that callers never share mutable values.
+ * <p>
+ * All cached results are invalidated whenever a function is registered or unregistered,
+ * e.g. when scripts are reloaded, as a cached function may call the changed function.
+ *
+ * @see Function#setCache(FunctionCache)
+ */
+public final class FunctionCache {
+
+	/**
+	 * Incremented to invalidate the results of all caches, see {@link #invalidateAll()}.
+	 */
+	private static final AtomicInteger generation = new AtomicInteger();
+
+	private static final int DEFAULT_MAXIMUM_SIZE = 1000;
+
+	private static volatile int configuredMaximumSize = DEFAULT_MAXIMUM_SIZE;
+
+	/**
+	 * Sets the maximum size of the caches of cached functions, from the config.
+	 *
+	 * @param maximumSize the maximum size, the default is used if it is not positive
+	 */
+	public static void setConfiguredMaximumSize(int maximumSize) {
+		if (maximumSize <= 0) {
+			Skript.error("The function cache size must be at least 1. Using the default of " + DEFAULT_MAXIMUM_SIZE + ".");
+			maximumSize = DEFAULT_MAXIMUM_SIZE;
+		}
+		configuredMaximumSize = maximumSize;
+	}
+
+	/**
+	 * @return the maximum size of the caches of cached functions set in the config
+	 */
+	public static int getConfiguredMaximumSize() {
+		return configuredMaximumSize;
+	}
+
+	/**
+	 * Invalidates the cached results of all functions.
+	 */
+	static void invalidateAll() {
+		generation.incrementAndGet();
+	}
+
+	private final int maximumSize;
+	private final long expireAfter;
+
+	/**
+	 * The cached results in access order, guarded by itself.
+	 */
+	private final Map<Arguments, Result> results;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * @param maximumSize the maximum amount of results to cache
+	 * @param expireAfter how long results are cached
+	 */
+	public FunctionCache(int maximumSize, Timespan expireAfter) {
+		if (maximumSize <= 0)
+			throw new IllegalArgumentException("The maximum size must be positive: " + maximumSize);
+		this.maximumSize = maximumSize;
+		this.expireAfter = TimeUnit.MILLISECONDS.toNanos(expireAfter.getAs(TimePeriod.MILLISECOND));
+		this.results = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Arguments, Result> eldest) {
+				return size() > FunctionCache.this.maximumSize;
+			}
+		};
+	}
+
+	/**
+	 * Gets the cached result for the given arguments.
+	 *
+	 * @param arguments the arguments, including default values
+	 * @return the result, or null if there is no valid result cached
+	 */
+	@Nullable
+	Result get(Object[][] arguments) {
+		Arguments key = new Arguments(arguments);
+		Result result;
+		synchronized (results) {
+			result = results.get(key);
+			if (result != null && (result.generation() != generation.get() || System.nanoTime() - result.cachedAt() > expireAfter)) {
+				results.remove(key);
+				result = null;
+			}
+		}
+		if (result == null) {
+			misses.increment();
+			return null;
+		}
+		hits.increment();
+		return result;
+	}
+
+	/**
+	 * Caches the result of the function for the given arguments.
+	 *
+	 * @param arguments the arguments, including default values
+	 * @param values the values returned by the function
+	 * @param keys the keys of the returned values
+	 */
+	void put(Object[][] arguments, Object @Nullable [] values, String @Nullable [] keys) {
+		Result result = new Result(
+			values == null ? null : (Object[]) Classes.clone(values),
+			keys == null ? null : keys.clone(),
+			System.nanoTime(),
+			generation.get()
+		);
+		Arguments key = new Arguments((Object[][]) Classes.clone(arguments));
+		synchronized (results) {
+			results.put(key, result);
+		}
+	}
+
+	/**
+	 * Removes all cached results.
+	 */
+	public void clear() {
+		synchronized (results) {
+			results.clear();
+		}
+	}
+
+	/**
+	 * @return the amount of cached results, including results that have expired but have not been removed yet
+	 */
+	public int size() {
+		synchronized (results) {
+			return results.size();
+		}
+	}
+
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * @return how many times a cached result was used
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return how many times the function had to be executed as there was no valid cached result
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * A cached result of a function.
+	 *
+	 * @param values the returned values, which must be {@link Classes#clone(Object) cloned} before being returned
+	 * @param keys the keys of the returned values, which must be copied before being returned
+	 */
+	record Result(Object @Nullable [] values, String @Nullable [] keys, long cachedAt, int generation) {}
+
+	/**
+	 * The values of the arguments of a call, compared by their contents.
+	 */
+	private static final class Arguments {
+
+		private final Object[][] values;
+		private final int hashCode;
+
+		Arguments(Object[][] values) {
+			this.values = values;
+			this.hashCode = Arrays.deepHashCode(values);
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			return object instanceof Arguments other && hashCode == other.hashCode && Arrays.deepEquals(values, other.values);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+	}
+
+}
@@ -116,6 +116,9 @@ final class FunctionRegistry implements Registry<Function<?>> {
 		if (existing != null) {
 			alreadyRegisteredError(signature.getName(), identifier, namespaceId);
 		}
+
+		// cached functions may call the function that was just (re)registered
+		FunctionCache.invalidateAll();
 	}
 
 	/**
@@ -540,6 +543,7 @@ final class FunctionRegistry implements Registry<Function<?>> {
 	 * @param name      The name of the function
 	 */
 	private void removeUpdateMaps(Namespace namespace, FunctionIdentifier toRemove, String name) {
+		FunctionCache.invalidateAll();
 		namespace.identifiers.computeIfPresent(name, (k, set) -> {
 			if (set.remove(toRemove)) {
 				Skript.debug("Removed identifier '%s' from %s", toRemove, namespace);
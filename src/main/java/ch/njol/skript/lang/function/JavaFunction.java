@@ -2,6 +2,7 @@ package ch.njol.skript.lang.function;
 
 import ch.njol.skript.classes.ClassInfo;
 import ch.njol.skript.util.Contract;
+import ch.njol.skript.util.Timespan;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -105,6 +106,19 @@ public abstract class JavaFunction<T> extends Function<T> {
 		return this;
 	}
 
+	/**
+	 * Caches the results of this function, see {@link FunctionCache}.
+	 * Only use this for functions without side effects, whose results only depend on their arguments.
+	 *
+	 * @param maximumSize The maximum amount of results to cache
+	 * @param expireAfter How long results are cached
+	 * @return This JavaFunction object
+	 */
+	public JavaFunction<T> cached(int maximumSize, Timespan expireAfter) {
+		setCache(new FunctionCache(maximumSize, expireAfter));
+		return this;
+	}
+
 	public String @Nullable [] getDescription() {
 		return description;
 	}
@@ -121,6 +135,11 @@ public abstract class JavaFunction<T> extends Function<T> {
 		return since;
 	}
 
+	@Override
+	protected void restoreReturnedKeys(@NotNull String @Nullable [] keys) {
+		returnedKeys = keys;
+	}
+
 	@Override
 	public boolean resetReturnValue() {
 		returnedKeys = null;
@@ -79,6 +79,11 @@ public class ScriptFunction<T> extends Function<T> implements ReturnHandler<T> {
 		return returnKeys;
 	}
 
+	@Override
+	protected void restoreReturnedKeys(@NotNull String @Nullable [] keys) {
+		returnKeys = keys;
+	}
+
 	/**
 	 * @deprecated Use {@link ScriptFunction#returnValues(Event, Expression)} instead.
 	 */
@@ -50,6 +50,7 @@ public class Signature<T> {
 	
 	/**
 	 * References (function calls) to function with this signature.
+	 * Must be synchronized on when iterated over.
 	 */
 	final Collection<FunctionReference<?>> calls;
 
@@ -79,7 +80,8 @@ public class Signature<T> {
 		this.originClassPath = originClassPath;
 		this.contract = contract;
 
-		calls = Collections.newSetFromMap(new WeakHashMap<>());
+		// references are added while parsing, which may happen on multiple threads
+		calls = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
 	}
 
 	public Signature(String script,
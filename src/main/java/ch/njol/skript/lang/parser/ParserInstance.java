@@ -27,6 +27,7 @@ import org.skriptlang.skript.lang.structure.Structure;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 public final class ParserInstance implements Experimented {
@@ -589,7 +590,7 @@ public final class ParserInstance implements Experimented {
 
 	}
 
-	private static final Map<Class<? extends Data>, Function<ParserInstance, ? extends Data>> dataRegister = new HashMap<>();
+	private static final Map<Class<? extends Data>, Function<ParserInstance, ? extends Data>> dataRegister = new ConcurrentHashMap<>();
 	// Should be Map<Class<? extends Data>, ? extends Data>, but that caused issues (with generics) in #getData(Class)
 	private final Map<Class<? extends Data>, Data> dataMap = new HashMap<>();
 
@@ -21,6 +21,11 @@ public class SimpleEvent extends SkriptEvent {
 		return true;
 	}
 
+	@Override
+	public boolean canCheckAsynchronously() {
+		return true;
+	}
+
 	@Override
 	public boolean init(Literal<?>[] args, int matchedPattern, ParseResult parser) {
 		if (args.length != 0)
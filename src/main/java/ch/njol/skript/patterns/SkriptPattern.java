@@ -28,12 +28,21 @@ public class SkriptPattern {
 	@Nullable
 	public MatchResult match(String expr, int flags, ParseContext parseContext) {
 		// Matching shortcut
-		String lowerExpr = expr.toLowerCase(Locale.ENGLISH);
-		for (Keyword keyword : keywords) {
-			if (!keyword.isPresent(lowerExpr))
-				return null;
-		}
+		if (!hasKeywords(expr.toLowerCase(Locale.ENGLISH)))
+			return null;
+		return matchWithoutKeywordCheck(expr, flags, parseContext);
+	}
 
+	/**
+	 * Attempts to match this pattern against an expression, without checking whether it {@link #hasKeywords(String) has the keywords} first.
+	 * This allows callers that check the keywords themselves to avoid checking them twice.
+	 * @param expr The expression to match.
+	 * @param flags The parse flags to use.
+	 * @param parseContext The parse context to use.
+	 * @return The result of the match, or null if this pattern does not match.
+	 */
+	@Nullable
+	public MatchResult matchWithoutKeywordCheck(String expr, int flags, ParseContext parseContext) {
 		expr = expr.trim();
 
 		MatchResult matchResult = new MatchResult();
@@ -50,6 +59,21 @@ public class SkriptPattern {
 		return match(expr, SkriptParser.ALL_FLAGS, ParseContext.DEFAULT);
 	}
 
+	/**
+	 * Checks whether all keywords required by this pattern are present in an expression.
+	 * If they are not, this pattern can never match the expression.
+	 * This check is significantly cheaper than a full {@link #match(String, int, ParseContext)}.
+	 * @param lowerExpr The expression to check, lower-cased using {@link Locale#ENGLISH}.
+	 * @return Whether this pattern could possibly match the expression.
+	 */
+	public boolean hasKeywords(String lowerExpr) {
+		for (Keyword keyword : keywords) {
+			if (!keyword.isPresent(lowerExpr))
+				return false;
+		}
+		return true;
+	}
+
 	@Override
 	public String toString() {
 		return first.toFullString();
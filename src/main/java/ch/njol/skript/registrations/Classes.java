@@ -40,6 +40,7 @@ import java.io.*;
 import java.lang.reflect.Array;
 import java.nio.charset.Charset;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 /**
@@ -53,10 +54,16 @@ public abstract class Classes {
 	private static ClassInfo<?>[] classInfos = null;
 	private final static List<ClassInfo<?>> tempClassInfos = new ArrayList<>();
 	private final static HashMap<Class<?>, ClassInfo<?>> exactClassInfos = new HashMap<>();
-	private final static HashMap<Class<?>, ClassInfo<?>> superClassInfos = new HashMap<>();
+	// filled lazily while parsing, which may happen on multiple threads
+	private final static Map<Class<?>, ClassInfo<?>> superClassInfos = new ConcurrentHashMap<>();
 	private final static HashMap<String, ClassInfo<?>> classInfosByCodeName = new HashMap<>();
 	private final static Map<String, List<ClassInfo<?>>> registeredLiteralPatterns = new HashMap<>();
 
+	/**
+	 * The resolved parsers of classes, see {@link #getParserChain(Class)}.
+	 */
+	private final static Map<Class<?>, ParserChain> parserChains = new ConcurrentHashMap<>();
+
 	/**
 	 * @param info info about the class to register
 	 */
@@ -464,15 +471,21 @@ public abstract class Classes {
 	 */
 	@Nullable
 	public static <T> T parseSimple(final String s, final Class<T> c, final ParseContext context) {
-		final ParseLogHandler log = SkriptLogger.startParseLogHandler();
+		return parseSimple(s, getParserChain(c).classInfos(), context);
+	}
+
+	@Nullable
+	private static <T> T parseSimple(String s, ClassInfo<?>[] classInfos, ParseContext context) {
+		ParseLogHandler log = SkriptLogger.startParseLogHandler();
 		try {
-			for (final ClassInfo<?> info : getClassInfos()) {
-				final Parser<?> parser = info.getParser();
-				if (parser == null || !parser.canParse(context) || !c.isAssignableFrom(info.getC()))
+			for (ClassInfo<?> info : classInfos) {
+				Parser<?> parser = info.getParser();
+				assert parser != null;
+				if (!parser.canParse(context))
 					continue;
 				log.clear();
 				@SuppressWarnings("unchecked")
-				final T t = (T) parser.parse(s, context);
+				T t = (T) parser.parse(s, context);
 				if (t != null) {
 					log.printLog();
 					return t;
@@ -499,25 +512,25 @@ public abstract class Classes {
 	@SuppressWarnings({"rawtypes", "unchecked"})
 	@Nullable
 	public static <T> T parse(final String s, final Class<T> c, final ParseContext context) {
-		final ParseLogHandler log = SkriptLogger.startParseLogHandler();
+		ParserChain chain = getParserChain(c);
+		ParseLogHandler log = SkriptLogger.startParseLogHandler();
 		try {
-			T t = parseSimple(s, c, context);
+			T t = parseSimple(s, chain.classInfos(), context);
 			if (t != null) {
 				log.printLog();
 				return t;
 			}
-			for (final ConverterInfo<?, ?> conv : Converters.getConverterInfos()) {
+			for (ConvertedParsers converted : chain.converted()) {
+				ConverterInfo<?, ?> conv = converted.converterInfo();
 				if ((context == ParseContext.COMMAND || context == ParseContext.PARSE) && (conv.getFlags() & Commands.CONVERTER_NO_COMMAND_ARGUMENTS) != 0)
 					continue;
-				if (c.isAssignableFrom(conv.getTo())) {
-					log.clear();
-					Object object = parseSimple(s, conv.getFrom(), context);
-					if (object != null) {
-						t = (T) ((Converter) conv.getConverter()).convert(object);
-						if (t != null) {
-							log.printLog();
-							return t;
-						}
+				log.clear();
+				Object object = parseSimple(s, converted.classInfos(), context);
+				if (object != null) {
+					t = (T) ((Converter) conv.getConverter()).convert(object);
+					if (t != null) {
+						log.printLog();
+						return t;
 					}
 				}
 			}
@@ -538,27 +551,82 @@ public abstract class Classes {
 	@Nullable
 	public static <T> Parser<? extends T> getParser(final Class<T> to) {
 		checkAllowClassInfoInteraction();
-		final ClassInfo<?>[] classInfos = Classes.classInfos;
-		if (classInfos == null)
+		if (Classes.classInfos == null)
 			return null;
-		for (int i = classInfos.length - 1; i >= 0; i--) {
-			final ClassInfo<?> ci = classInfos[i];
-			if (to.isAssignableFrom(ci.getC()) && ci.getParser() != null)
-				return (Parser<? extends T>) ci.getParser();
+		return (Parser<? extends T>) getParserChain(to).parser();
+	}
+
+	/**
+	 * Gets the parsers that can be used to parse the given class, resolving them if this class was not used before.
+	 * The parsers are only resolved once, as classes and converters can no longer be registered when parsing.
+	 */
+	private static ParserChain getParserChain(Class<?> c) {
+		List<ConverterInfo<?, ?>> converterInfos = Converters.getConverterInfos();
+		ParserChain chain = parserChains.get(c);
+		// converters may still be registered in tests
+		if (chain == null || chain.converterCount() != converterInfos.size()) {
+			chain = resolveParserChain(c, converterInfos);
+			parserChains.put(c, chain);
+		}
+		return chain;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static ParserChain resolveParserChain(Class<?> c, List<ConverterInfo<?, ?>> converterInfos) {
+		ClassInfo<?>[] classInfos = getParsableClassInfos(c);
+		List<ConvertedParsers> converted = new ArrayList<>();
+		for (ConverterInfo<?, ?> conv : converterInfos) {
+			if (c.isAssignableFrom(conv.getTo()))
+				converted.add(new ConvertedParsers(conv, getParsableClassInfos(conv.getFrom())));
 		}
-		for (final ConverterInfo<?, ?> conv : Converters.getConverterInfos()) {
-			if (to.isAssignableFrom(conv.getTo())) {
-				for (int i = classInfos.length - 1; i >= 0; i--) {
-					final ClassInfo<?> ci = classInfos[i];
-					final Parser<?> parser = ci.getParser();
-					if (conv.getFrom().isAssignableFrom(ci.getC()) && parser != null)
-						return Classes.createConvertedParser(parser, (Converter<?, ? extends T>) conv.getConverter());
+
+		// the parser of the last class info, the same as the previous linear search backwards
+		Parser<?> parser = null;
+		if (classInfos.length > 0) {
+			parser = classInfos[classInfos.length - 1].getParser();
+		} else {
+			for (ConvertedParsers convertedParsers : converted) {
+				ClassInfo<?>[] fromInfos = convertedParsers.classInfos();
+				if (fromInfos.length > 0) {
+					Parser<?> fromParser = fromInfos[fromInfos.length - 1].getParser();
+					assert fromParser != null;
+					parser = createConvertedParser(fromParser, (Converter<Object, ?>) convertedParsers.converterInfo().getConverter());
+					break;
 				}
 			}
 		}
-		return null;
+
+		return new ParserChain(classInfos, converted.toArray(new ConvertedParsers[0]), parser, converterInfos.size());
+	}
+
+	/**
+	 * @return The class infos with a parser whose class is the given class or a subclass of it, in the order they are tried in.
+	 */
+	private static ClassInfo<?>[] getParsableClassInfos(Class<?> c) {
+		List<ClassInfo<?>> classInfos = new ArrayList<>();
+		for (ClassInfo<?> info : getClassInfos()) {
+			if (info.getParser() != null && c.isAssignableFrom(info.getC()))
+				classInfos.add(info);
+		}
+		return classInfos.toArray(new ClassInfo[0]);
 	}
 
+	/**
+	 * The parsers of a class.
+	 *
+	 * @param classInfos The class infos whose parsers parse the class directly.
+	 * @param converted The parsers of classes that can be converted to the class.
+	 * @param parser The parser returned by {@link #getParser(Class)}.
+	 * @param converterCount The amount of converters when this was resolved.
+	 */
+	private record ParserChain(ClassInfo<?>[] classInfos, ConvertedParsers[] converted, @Nullable Parser<?> parser, int converterCount) {}
+
+	/**
+	 * @param converterInfo The converter to convert the parsed objects with.
+	 * @param classInfos The class infos whose parsers parse the class the converter converts from.
+	 */
+	private record ConvertedParsers(ConverterInfo<?, ?> converterInfo, ClassInfo<?>[] classInfos) {}
+
 	/**
 	 * Gets a parser for an exactly known class. You should usually use {@link #getParser(Class)} instead of this method.
 	 * <p>
@@ -67,6 +67,11 @@ public class StructEvent extends Structure {
 		return event.load();
 	}
 
+	@Override
+	public boolean canLoadInParallel() {
+		return event.canLoadInParallel();
+	}
+
 	@Override
 	public boolean postLoad() {
 		getParser().setCurrentStructure(event);
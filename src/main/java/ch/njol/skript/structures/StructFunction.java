@@ -2,6 +2,7 @@ package ch.njol.skript.structures;
 
 import ch.njol.skript.ScriptLoader;
 import ch.njol.skript.Skript;
+import ch.njol.skript.SkriptConfig;
 import ch.njol.skript.config.SectionNode;
 import ch.njol.skript.doc.Description;
 import ch.njol.skript.doc.Examples;
@@ -9,6 +10,8 @@ import ch.njol.skript.doc.Name;
 import ch.njol.skript.doc.Since;
 import ch.njol.skript.lang.Literal;
 import ch.njol.skript.lang.SkriptParser.ParseResult;
+import ch.njol.skript.lang.function.Function;
+import ch.njol.skript.lang.function.FunctionCache;
 import ch.njol.skript.lang.function.FunctionEvent;
 import ch.njol.skript.lang.function.Functions;
 import ch.njol.skript.lang.function.Signature;
@@ -26,7 +29,10 @@ import java.util.regex.Pattern;
 @Description({
 	"Functions are structures that can be executed with arguments/parameters to run code.",
 	"They can also return a value to the trigger that is executing the function.",
-	"Note that local functions come before global functions execution"
+	"Note that local functions come before global functions execution",
+	"Cached functions remember their results for the arguments they were called with, and return them again " +
+		"instead of running their code. Only use this for functions that don't change anything " +
+		"and whose results only depend on their arguments."
 })
 @Examples({
 	"function sayMessage(message: text):",
@@ -36,20 +42,23 @@ import java.util.regex.Pattern;
 	"\treturn {_amount} of apple",
 	"",
 	"function getPoints(p: player) returns number:",
-	"\treturn {points::%{_p}%}"
+	"\treturn {points::%{_p}%}",
+	"",
+	"cached function experienceForLevel(level: number) :: number:",
+	"\treturn 2.5 * {_level} ^ 2 - 40.5 * {_level} + 360"
 })
-@Since("2.2, 2.7 (local functions)")
+@Since("2.2, 2.7 (local functions), 2.12 (cached functions)")
 public class StructFunction extends Structure {
 
 	public static final Priority PRIORITY = new Priority(400);
 
 	private static final Pattern SIGNATURE_PATTERN =
-			Pattern.compile("^(?:local )?function (" + Functions.functionNamePattern + ")\\((.*?)\\)(?:\\s*(?:::| returns )\\s*(.+))?$");
+			Pattern.compile("^(?:local )?(?:cached )?function (" + Functions.functionNamePattern + ")\\((.*?)\\)(?:\\s*(?:::| returns )\\s*(.+))?$");
 	private static final AtomicBoolean VALIDATE_FUNCTIONS = new AtomicBoolean();
 
 	static {
 		Skript.registerStructure(StructFunction.class,
-			"[:local] function <.+>"
+			"[:local] [:cached] function <.+>"
 		);
 	}
 
@@ -58,12 +67,14 @@ public class StructFunction extends Structure {
 	@Nullable
 	private Signature<?> signature;
 	private boolean local;
+	private boolean cached;
 
 	@Override
 	public boolean init(Literal<?>[] literals, int matchedPattern, ParseResult parseResult, @Nullable EntryContainer entryContainer) {
 		assert entryContainer != null; // cannot be null for non-simple structures
 		this.source = entryContainer.getSource();
 		local = parseResult.hasTag("local");
+		cached = parseResult.hasTag("cached");
 		return true;
 	}
 
@@ -99,7 +110,9 @@ public class StructFunction extends Structure {
 
 		assert signature != null;
 		// noinspection ConstantConditions - entry container cannot be null as this structure is not simple
-		Functions.loadFunction(parser.getCurrentScript(), source, signature);
+		Function<?> function = Functions.loadFunction(parser.getCurrentScript(), source, signature);
+		if (function != null && cached)
+			function.setCache(new FunctionCache(FunctionCache.getConfiguredMaximumSize(), SkriptConfig.functionCacheDuration.value()));
 
 		parser.deleteCurrentEvent();
 
@@ -131,7 +144,7 @@ public class StructFunction extends Structure {
 
 	@Override
 	public String toString(@Nullable Event event, boolean debug) {
-		return (local ? "local " : "") + "function";
+		return (local ? "local " : "") + (cached ? "cached " : "") + "function";
 	}
 
 }
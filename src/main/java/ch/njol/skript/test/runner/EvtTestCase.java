@@ -57,6 +57,11 @@ public class EvtTestCase extends SkriptEvent {
 		return condition != null ? condition.check(new SkriptTestEvent()) : true;
 	}
 
+	@Override
+	public boolean canLoadInParallel() {
+		return true; // the condition is only checked against a new event
+	}
+
 	public String getTestName() {
 		return name.getSingle();
 	}
@@ -0,0 +1,309 @@
+package ch.njol.skript.timings;
+
+import ch.njol.skript.lang.Trigger;
+import ch.njol.skript.lang.TriggerItem;
+import org.jetbrains.annotations.Nullable;
+import org.skriptlang.skript.lang.script.Script;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures how long each {@link TriggerItem} takes to execute, to find which lines of scripts are slow.
+ * <p>
+ * While a profile is running, {@link TriggerItem#walk(TriggerItem, org.bukkit.event.Event)} measures every item it executes.
+ * When no profile is running, items are executed without any measuring.
+ * <p>
+ * The time of an item includes the time of the triggers it calls, e.g. functions,
+ * while its self time excludes them. The items of a section are measured separately from the section itself.
+ */
+public final class TriggerProfiler {
+
+	private static volatile @Nullable Profile profile;
+	private static volatile @Nullable Profile lastProfile;
+
+	private TriggerProfiler() {}
+
+	/**
+	 * @return the running profile, or null if triggers are not being profiled
+	 */
+	public static @Nullable Profile getProfile() {
+		return profile;
+	}
+
+	/**
+	 * @return the running profile, or the last stopped profile if no profile is running
+	 */
+	public static @Nullable Profile getLastProfile() {
+		Profile profile = TriggerProfiler.profile;
+		return profile != null ? profile : lastProfile;
+	}
+
+	public static boolean isProfiling() {
+		return profile != null;
+	}
+
+	/**
+	 * Starts a new profile.
+	 *
+	 * @return whether the profile was started, i.e. false if a profile is already running
+	 */
+	public static synchronized boolean start() {
+		if (profile != null)
+			return false;
+		profile = new Profile();
+		return true;
+	}
+
+	/**
+	 * Stops the running profile.
+	 *
+	 * @return the stopped profile, or null if no profile was running
+	 */
+	public static synchronized @Nullable Profile stop() {
+		Profile profile = TriggerProfiler.profile;
+		if (profile == null)
+			return null;
+		profile.stop();
+		TriggerProfiler.profile = null;
+		lastProfile = profile;
+		return profile;
+	}
+
+	/**
+	 * The timings of the items executed while profiling.
+	 */
+	public static final class Profile {
+
+		/**
+		 * The maximum length of the text of an item in a stack frame.
+		 */
+		private static final int MAX_FRAME_LENGTH = 64;
+
+		private final Map<TriggerItem, ItemTimings> timings = new ConcurrentHashMap<>();
+		private final ThreadLocal<Clock> clocks = ThreadLocal.withInitial(Clock::new);
+
+		private final long startedAt = System.nanoTime();
+		private volatile long stoppedAt = -1;
+
+		private Profile() {}
+
+		/**
+		 * @return the clock to measure items with on the current thread
+		 */
+		public Clock getClock() {
+			return clocks.get();
+		}
+
+		private void stop() {
+			stoppedAt = System.nanoTime();
+		}
+
+		/**
+		 * @return how long this profile has been running, or ran for if it was stopped, in nanoseconds
+		 */
+		public long getDuration() {
+			long stoppedAt = this.stoppedAt;
+			return (stoppedAt == -1 ? System.nanoTime() : stoppedAt) - startedAt;
+		}
+
+		/**
+		 * @return the timings of all measured items, sorted by their self time, highest first
+		 */
+		public List<ItemTimings> getTimings() {
+			List<ItemTimings> timings = new ArrayList<>(this.timings.values());
+			timings.sort(Comparator.comparingLong(ItemTimings::getSelfNanos).reversed());
+			return timings;
+		}
+
+		/**
+		 * Writes the self time of each measured item in the collapsed stack format, one item per line,
+		 * which can be turned into a flame graph by e.g. flamegraph.pl or speedscope.
+		 * The frames of an item are its trigger and the sections it is in, and the times are in microseconds.
+		 *
+		 * @param file the file to write to
+		 */
+		public void writeCollapsedStacks(Path file) throws IOException {
+			Path parent = file.getParent();
+			if (parent != null)
+				Files.createDirectories(parent);
+			try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+				for (ItemTimings timings : getTimings()) {
+					long micros = TimeUnit.NANOSECONDS.toMicros(timings.getSelfNanos());
+					if (micros == 0)
+						continue;
+					writer.write(timings.getStack());
+					writer.write(' ');
+					writer.write(Long.toString(micros));
+					writer.write('\n');
+				}
+			}
+		}
+
+		private void record(TriggerItem item, long nanos, long selfNanos) {
+			ItemTimings timings = this.timings.get(item);
+			if (timings == null)
+				timings = this.timings.computeIfAbsent(item, ItemTimings::new);
+			timings.calls.increment();
+			timings.totalNanos.add(nanos);
+			timings.selfNanos.add(selfNanos);
+		}
+
+		/**
+		 * Measures the items executed on one thread.
+		 * Items executed while another item is executed, e.g. the items of a called function,
+		 * are excluded from the self time of that item.
+		 */
+		public final class Clock {
+
+			/**
+			 * The time of all items measured by this clock, excluding items that are still being executed.
+			 */
+			private long measuredNanos;
+
+			/**
+			 * The measured time when each item that is being executed was entered.
+			 */
+			private long[] entered = new long[16];
+			private int depth;
+
+			private Clock() {}
+
+			/**
+			 * Starts measuring an item. Every call must be followed by a call to {@link #exit(TriggerItem, long)}.
+			 *
+			 * @return the start time to pass to {@link #exit(TriggerItem, long)}
+			 */
+			public long enter() {
+				if (depth == entered.length)
+					entered = Arrays.copyOf(entered, depth * 2);
+				entered[depth++] = measuredNanos;
+				return System.nanoTime();
+			}
+
+			/**
+			 * Stops measuring an item.
+			 *
+			 * @param item the item that was executed
+			 * @param start the time returned by {@link #enter()}
+			 */
+			public void exit(TriggerItem item, long start) {
+				long nanos = System.nanoTime() - start;
+				long enteredAt = entered[--depth];
+				long nestedNanos = measuredNanos - enteredAt;
+				measuredNanos = enteredAt + nanos;
+				record(item, nanos, nanos - nestedNanos);
+			}
+
+		}
+
+	}
+
+	/**
+	 * The timings of one item.
+	 */
+	public static final class ItemTimings {
+
+		private final TriggerItem item;
+		private final LongAdder calls = new LongAdder();
+		private final LongAdder totalNanos = new LongAdder();
+		private final LongAdder selfNanos = new LongAdder();
+
+		private @Nullable String stack;
+
+		private ItemTimings(TriggerItem item) {
+			this.item = item;
+		}
+
+		public TriggerItem getItem() {
+			return item;
+		}
+
+		/**
+		 * @return how many times the item was executed
+		 */
+		public long getCalls() {
+			return calls.sum();
+		}
+
+		/**
+		 * @return how long the item took in total, including the triggers it called
+		 */
+		public long getTotalNanos() {
+			return totalNanos.sum();
+		}
+
+		/**
+		 * @return how long the item took in total, excluding the triggers it called
+		 */
+		public long getSelfNanos() {
+			return selfNanos.sum();
+		}
+
+		/**
+		 * @return the location of the item, e.g. {@code test.sk:12}
+		 */
+		public String getLocation() {
+			return getLocation(item);
+		}
+
+		/**
+		 * @return the frames of the item in the collapsed stack format, separated by semicolons
+		 */
+		public String getStack() {
+			String stack = this.stack;
+			if (stack == null) {
+				List<String> frames = new ArrayList<>();
+				TriggerItem frame = item;
+				while (frame != null) {
+					frames.add(frame instanceof Trigger trigger
+						? getScriptName(trigger) + ": " + getText(trigger)
+						: getLocation(frame) + " " + getText(frame));
+					frame = frame.getParent();
+				}
+				StringBuilder builder = new StringBuilder();
+				for (int i = frames.size() - 1; i >= 0; i--) {
+					builder.append(frames.get(i));
+					if (i != 0)
+						builder.append(';');
+				}
+				this.stack = stack = builder.toString();
+			}
+			return stack;
+		}
+
+		private static String getLocation(TriggerItem item) {
+			Trigger trigger = item.getTrigger();
+			String location = trigger == null ? "<unknown>" : getScriptName(trigger);
+			return item.getLineNumber() == -1 ? location : location + ":" + item.getLineNumber();
+		}
+
+		private static String getScriptName(Trigger trigger) {
+			Script script = trigger.getScript();
+			return script == null ? "<unknown>" : script.getConfig().getFileName();
+		}
+
+		/**
+		 * @return the text of an item, without the characters that separate frames and values
+		 */
+		private static String getText(TriggerItem item) {
+			String text = item.toString(null, false).replace(';', ',').replace('\n', ' ');
+			if (text.length() > Profile.MAX_FRAME_LENGTH)
+				text = text.substring(0, Profile.MAX_FRAME_LENGTH - 3) + "...";
+			return text;
+		}
+
+	}
+
+}
@@ -0,0 +1,56 @@
+package ch.njol.skript.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * A cache of compiled regular expressions, for syntaxes that use regexes which are only known when they are executed.
+ * Regexes that are known when parsing should be compiled once instead.
+ * <p>
+ * When the cache is full, the least recently used patterns are evicted.
+ */
+public final class RegexCache {
+
+	/**
+	 * The maximum amount of cached patterns.
+	 */
+	private static final int MAXIMUM_SIZE = 512;
+
+	/**
+	 * The cached patterns in access order, guarded by itself.
+	 */
+	private static final Map<String, Pattern> patterns = new LinkedHashMap<>(64, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Pattern> eldest) {
+			return size() > MAXIMUM_SIZE;
+		}
+	};
+
+	private RegexCache() {}
+
+	/**
+	 * Gets the compiled pattern of the given regex, compiling it if it is not cached.
+	 *
+	 * @param regex the regex.
+	 * @return the compiled pattern.
+	 * @throws PatternSyntaxException if the regex is invalid. Invalid regexes are not cached.
+	 */
+	public static Pattern get(String regex) throws PatternSyntaxException {
+		Pattern pattern;
+		synchronized (patterns) {
+			pattern = patterns.get(regex);
+		}
+		if (pattern != null)
+			return pattern;
+
+		// compile without holding the lock, a pattern compiled concurrently just replaces this one
+		pattern = Pattern.compile(regex);
+		synchronized (patterns) {
+			patterns.put(regex, pattern);
+		}
+		return pattern;
+	}
+
+}
@@ -0,0 +1,67 @@
+package ch.njol.skript.util;
+
+import ch.njol.skript.Skript;
+import org.bukkit.Bukkit;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A queue of tasks that are run on Bukkit's main thread in batches,
+ * such that any number of tasks queued during a tick only schedule a single task.
+ * <p>
+ * Unlike {@link Task#callSync(java.util.concurrent.Callable)}, queueing a task never blocks the calling thread,
+ * thus the caller cannot wait for the task or use its result.
+ */
+public final class SyncTaskQueue {
+
+	private static final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Whether a task is scheduled to drain the queue, which has not started draining the queue yet.
+	 */
+	private static final AtomicBoolean scheduled = new AtomicBoolean();
+
+	private SyncTaskQueue() {}
+
+	/**
+	 * Queues a task to be run on the main thread, in the order of queueing.
+	 * The task is run at the next tick, or not at all if Skript is disabled before.
+	 *
+	 * @param task the task
+	 */
+	public static void queue(Runnable task) {
+		tasks.add(task);
+		if (scheduled.compareAndSet(false, true)) {
+			if (!Skript.getInstance().isEnabled()) {
+				tasks.clear();
+				scheduled.set(false);
+				return;
+			}
+			Bukkit.getScheduler().runTask(Skript.getInstance(), SyncTaskQueue::drain);
+		}
+	}
+
+	/**
+	 * Runs the queued tasks. Tasks that are queued while draining are run by the next drain,
+	 * such that a task that queues itself cannot stall the tick.
+	 */
+	private static void drain() {
+		// allow the next queued task to schedule the next drain
+		scheduled.set(false);
+		int count = tasks.size();
+		for (int i = 0; i < count; i++) {
+			Runnable task = tasks.poll();
+			if (task == null)
+				break;
+			try {
+				task.run();
+			} catch (Exception e) {
+				//noinspection ThrowableNotThrown
+				Skript.exception(e, "An exception occurred while running a queued task");
+			}
+		}
+	}
+
+}
@@ -0,0 +1,245 @@
+package ch.njol.skript.util;
+
+import ch.njol.skript.Skript;
+import org.bukkit.Bukkit;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs tasks on Bukkit's main thread after a delay in ticks, using a single repeating Bukkit task.
+ * <p>
+ * Tasks are stored in a hierarchical {@link TimingWheel}, so scheduling and cancelling a task take constant time,
+ * and each tick only visits the tasks that are due.
+ * <p>
+ * Tasks may be scheduled from any thread. Tasks scheduled for the same tick run in the order they were scheduled.
+ * <p>
+ * Delays count the ticks of the wheel, which advances once per server tick. A task scheduled on the main thread
+ * is always run in a later server tick, even if it is scheduled before the wheel advanced during the current server tick.
+ * This requires {@link Bukkit#getCurrentTick()}: on servers without it, a task that is scheduled by another Bukkit task
+ * that runs before the wheel's task may run later in the same server tick.
+ */
+public final class TickScheduler {
+
+	private static final long NANOS_PER_TICK = 50_000_000;
+
+	private static final boolean SERVER_TICK_EXISTS = Skript.methodExists(Bukkit.class, "getCurrentTick");
+
+	private static final Object lock = new Object();
+
+	/**
+	 * The scheduled tasks, guarded by {@link #lock}.
+	 */
+	private static final TimingWheel<ScheduledTask> wheel = new TimingWheel<>(task -> task.dueTick, ScheduledTask::isCancelled);
+
+	/**
+	 * The server tick during which the wheel last advanced, guarded by {@link #lock}.
+	 * Only used if {@link #SERVER_TICK_EXISTS}.
+	 */
+	private static int lastServerTick;
+
+	/**
+	 * The ID of the Bukkit task that advances the wheel, or -1 if it is not running, guarded by {@link #lock}.
+	 */
+	private static int taskID = -1;
+	private static boolean closeOnDisable;
+
+	private static final AtomicInteger pending = new AtomicInteger();
+	private static final LongAdder latenessNanos = new LongAdder();
+	private static final LongAdder runs = new LongAdder();
+	private static final AtomicLong maxLatenessNanos = new AtomicLong();
+
+	private static final Map<Long, AtomicLong> spreadCounters = new ConcurrentHashMap<>();
+
+	private TickScheduler() {}
+
+	/**
+	 * Runs a task once on the main thread.
+	 *
+	 * @param task the task
+	 * @param delay the delay in ticks, at least one tick
+	 * @return the scheduled task, to cancel it
+	 */
+	public static ScheduledTask runLater(Runnable task, long delay) {
+		return schedule(new ScheduledTask(task, Math.max(delay, 1), 0));
+	}
+
+	/**
+	 * Runs a task repeatedly on the main thread, until it is cancelled.
+	 * If the server lags, the task is not run more often to catch up, but runs every period ticks.
+	 *
+	 * @param task the task
+	 * @param delay the delay in ticks before the first run, at least one tick
+	 * @param period the period in ticks, at least one tick
+	 * @return the scheduled task, to cancel it
+	 */
+	public static ScheduledTask runRepeating(Runnable task, long delay, long period) {
+		return schedule(new ScheduledTask(task, Math.max(delay, 1), Math.max(period, 1)));
+	}
+
+	/**
+	 * Gets an offset to spread tasks with the same period over different ticks:
+	 * each call for a period returns the next tick of the period, starting at 0.
+	 *
+	 * @param period the period in ticks
+	 * @return an offset between 0 and the period, exclusive
+	 */
+	public static long getSpreadOffset(long period) {
+		if (period <= 1)
+			return 0;
+		return spreadCounters.computeIfAbsent(period, key -> new AtomicLong()).getAndIncrement() % period;
+	}
+
+	/**
+	 * @return the amount of tasks that are scheduled and were not cancelled, including repeating tasks
+	 */
+	public static int getPendingCount() {
+		return pending.get();
+	}
+
+	/**
+	 * @return the average time in milliseconds tasks ran after the time they were due, e.g. because the server lagged
+	 */
+	public static double getAverageLateness() {
+		long runs = TickScheduler.runs.sum();
+		return runs == 0 ? 0 : latenessNanos.sum() / (double) runs / 1_000_000;
+	}
+
+	/**
+	 * @return the longest time in milliseconds a task ran after the time it was due
+	 */
+	public static double getMaximumLateness() {
+		return maxLatenessNanos.get() / 1_000_000.0;
+	}
+
+	private static ScheduledTask schedule(ScheduledTask task) {
+		pending.incrementAndGet();
+		synchronized (lock) {
+			task.dueTick = wheel.getCurrentTick() + task.delay;
+			// the wheel may not have advanced yet during this server tick,
+			// in which case its next tick is still part of this server tick
+			if (SERVER_TICK_EXISTS && taskID != -1 && Bukkit.isPrimaryThread() && Bukkit.getCurrentTick() != lastServerTick)
+				task.dueTick++;
+			wheel.insert(task);
+			if (taskID == -1)
+				start();
+		}
+		return task;
+	}
+
+	/**
+	 * Starts the Bukkit task that advances the wheel, guarded by {@link #lock}.
+	 */
+	private static void start() {
+		Skript skript = Skript.getInstance();
+		if (!skript.isEnabled())
+			return;
+		taskID = Bukkit.getScheduler().scheduleSyncRepeatingTask(skript, TickScheduler::tick, 1, 1);
+		if (!closeOnDisable) {
+			closeOnDisable = true;
+			// Bukkit cancels the task when Skript is disabled, the pending tasks are dropped as well
+			Skript.closeOnDisable(TickScheduler::clear);
+		}
+	}
+
+	private static void clear() {
+		synchronized (lock) {
+			if (taskID != -1) {
+				Bukkit.getScheduler().cancelTask(taskID);
+				taskID = -1;
+			}
+			wheel.clear();
+			pending.set(0);
+		}
+	}
+
+	private static void tick() {
+		List<ScheduledTask> due;
+		synchronized (lock) {
+			if (SERVER_TICK_EXISTS)
+				lastServerTick = Bukkit.getCurrentTick();
+			due = wheel.advance();
+		}
+		if (due == null)
+			return;
+
+		long now = System.nanoTime();
+		for (ScheduledTask task : due) {
+			if (task.isCancelled())
+				continue;
+			long lateness = Math.max(now - task.expectedNanos, 0);
+			latenessNanos.add(lateness);
+			runs.increment();
+			maxLatenessNanos.accumulateAndGet(lateness, Math::max);
+
+			if (task.period == 0)
+				task.finish();
+			try {
+				task.task.run();
+			} catch (Exception e) {
+				//noinspection ThrowableNotThrown
+				Skript.exception(e, "An exception occurred while running a scheduled task");
+			}
+
+			if (task.period != 0 && !task.isCancelled()) {
+				// measured from this run, so that being late once doesn't count towards every later run
+				task.expectedNanos = now + task.period * NANOS_PER_TICK;
+				synchronized (lock) {
+					task.dueTick += task.period;
+					wheel.insert(task);
+				}
+			}
+		}
+	}
+
+	/**
+	 * A task of the {@link TickScheduler}.
+	 */
+	public static final class ScheduledTask {
+
+		private final Runnable task;
+		private final long delay;
+		private final long period;
+
+		/**
+		 * Whether the task was cancelled or has run, if it does not repeat.
+		 */
+		private final AtomicBoolean finished = new AtomicBoolean();
+
+		private long dueTick;
+		private long expectedNanos;
+
+		private ScheduledTask(Runnable task, long delay, long period) {
+			this.task = task;
+			this.delay = delay;
+			this.period = period;
+			this.expectedNanos = System.nanoTime() + delay * NANOS_PER_TICK;
+		}
+
+		/**
+		 * Cancels this task. It is not run anymore, unless it is currently running.
+		 */
+		public void cancel() {
+			finish();
+		}
+
+		/**
+		 * @return whether this task was cancelled, or has run if it does not repeat
+		 */
+		public boolean isCancelled() {
+			return finished.get();
+		}
+
+		private void finish() {
+			if (finished.compareAndSet(false, true))
+				pending.decrementAndGet();
+		}
+
+	}
+
+}
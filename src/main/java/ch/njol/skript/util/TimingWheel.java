@@ -0,0 +1,131 @@
+package ch.njol.skript.util;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * A hierarchical timing wheel storing tasks by the tick they are due, used by {@link TickScheduler}.
+ * <p>
+ * Tasks due within the current block of 256 ticks are stored in a bucket per tick,
+ * later tasks are stored in buckets of 256 or 65536 ticks, and are moved to lower levels when their bucket is reached.
+ * Tasks due after the current block of 2<sup>24</sup> ticks are parked in the bucket that starts the next such block.
+ * All tasks due at the same tick are thus always stored in the same bucket, in the order they were inserted.
+ * <p>
+ * This class is not thread-safe.
+ *
+ * @param <T> the type of the tasks
+ */
+final class TimingWheel<T> {
+
+	static final int SLOT_BITS = 8;
+	static final int SLOTS = 1 << SLOT_BITS;
+	static final int SLOT_MASK = SLOTS - 1;
+	static final int LEVELS = 3;
+
+	private final ToLongFunction<T> dueTick;
+	private final Predicate<T> isCancelled;
+
+	/**
+	 * The buckets of each level, created when they are first used.
+	 */
+	@SuppressWarnings("unchecked")
+	private final @Nullable List<T>[][] wheel = new List[LEVELS][SLOTS];
+
+	/**
+	 * The last tick that the wheel advanced to.
+	 */
+	private long currentTick;
+
+	/**
+	 * @param dueTick gets the tick a task is due, which must not change while it is in the wheel
+	 * @param isCancelled whether a task was cancelled, in which case it is dropped when its bucket is moved
+	 */
+	TimingWheel(ToLongFunction<T> dueTick, Predicate<T> isCancelled) {
+		this.dueTick = dueTick;
+		this.isCancelled = isCancelled;
+	}
+
+	/**
+	 * @return the last tick that the wheel advanced to, tasks must be due after it
+	 */
+	long getCurrentTick() {
+		return currentTick;
+	}
+
+	/**
+	 * Adds a task to the bucket of the tick it is due.
+	 *
+	 * @param task the task, due after the {@link #getCurrentTick() current tick}
+	 */
+	void insert(T task) {
+		long due = dueTick.applyAsLong(task);
+		// tasks moved to a lower level by advance() may be due at the new tick
+		assert due >= currentTick : due + " < " + currentTick;
+		int level = 0;
+		// the lowest level whose bucket of the task is in the same block of the next level as the current tick,
+		//  such that the bucket is reached before the task is due
+		while (level < LEVELS && due >> (SLOT_BITS * (level + 1)) != currentTick >> (SLOT_BITS * (level + 1)))
+			level++;
+		int index;
+		if (level == LEVELS) {
+			// park the task in the bucket that starts the next block of the highest level
+			level = LEVELS - 1;
+			index = 0;
+		} else {
+			index = (int) ((due >> (SLOT_BITS * level)) & SLOT_MASK);
+		}
+		List<T>[] buckets = wheel[level];
+		List<T> bucket = buckets[index];
+		if (bucket == null)
+			buckets[index] = bucket = new ArrayList<>();
+		bucket.add(task);
+	}
+
+	/**
+	 * Advances the wheel by one tick.
+	 *
+	 * @return the tasks due at the new tick in the order they were inserted, including cancelled tasks,
+	 * or null if there are none
+	 */
+	@Nullable List<T> advance() {
+		long tick = ++currentTick;
+		// move the tasks of the buckets that start at this tick to lower levels, highest level first
+		for (int level = LEVELS - 1; level > 0; level--) {
+			if ((tick & ((1L << (SLOT_BITS * level)) - 1)) != 0)
+				continue;
+			List<T> bucket = take(level, tick);
+			if (bucket == null)
+				continue;
+			for (T task : bucket) {
+				if (!isCancelled.test(task))
+					insert(task);
+			}
+		}
+		return take(0, tick);
+	}
+
+	/**
+	 * Removes all tasks.
+	 */
+	void clear() {
+		for (List<T>[] level : wheel) {
+			for (int slot = 0; slot < SLOTS; slot++)
+				level[slot] = null;
+		}
+	}
+
+	/**
+	 * Removes and returns the tasks of a bucket.
+	 */
+	private @Nullable List<T> take(int level, long tick) {
+		int index = (int) ((tick >> (SLOT_BITS * level)) & SLOT_MASK);
+		List<T> bucket = wheel[level][index];
+		wheel[level][index] = null;
+		return bucket;
+	}
+
+}
@@ -0,0 +1,589 @@
+package ch.njol.skript.variables;
+
+import ch.njol.skript.Skript;
+import ch.njol.skript.config.SectionNode;
+import ch.njol.skript.log.SkriptLogger;
+import ch.njol.skript.registrations.Classes;
+import ch.njol.skript.util.ExceptionUtils;
+import ch.njol.skript.util.FileUtils;
+import ch.njol.skript.util.Task;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UTFDataFormatException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.zip.CRC32;
+
+/**
+ * A variable storage that stores its content in a binary, append-only file.
+ * <p>
+ * Every variable change is appended to the end of the file as a single record,
+ * so saving a change never requires rewriting or even reading the rest of the file.
+ * When the file contains much more outdated records than current ones, it is compacted:
+ * the current variables are written to a new file (the snapshot), which replaces the old one.
+ * <p>
+ * The file starts with a {@link #MAGIC magic number} and a {@link #FORMAT_VERSION format version},
+ * followed by records of the form {@code [int length][int CRC32 of the payload][payload]}.
+ * The payload contains the variable's name, and its type and serialized value unless the record deletes the variable.
+ * <p>
+ * A record that was only partially written (e.g. because the server crashed) is detected
+ * through its length and checksum, and the file is truncated to the last complete record when loading.
+ */
+public class BinaryStorage extends VariablesStorage {
+
+	/**
+	 * The magic number at the start of every binary variables file, {@code SKVB} in ASCII.
+	 */
+	static final int MAGIC = 0x534B5642;
+
+	/**
+	 * The version of the file format.
+	 */
+	static final short FORMAT_VERSION = 1;
+
+	/**
+	 * The size of the file header in bytes.
+	 */
+	static final int HEADER_SIZE = Integer.BYTES + Short.BYTES;
+
+	/**
+	 * The size of a record header (length and checksum) in bytes.
+	 */
+	static final int RECORD_HEADER_SIZE = 2 * Integer.BYTES;
+
+	/**
+	 * The maximum size of a single record's payload.
+	 * Larger lengths can only be the result of a corrupted file.
+	 */
+	static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+
+	/**
+	 * The minimum amount of outdated bytes in the file before it is compacted.
+	 */
+	private static final long MIN_COMPACTION_SIZE = 1024 * 1024;
+
+	/**
+	 * The delay for the compaction task.
+	 */
+	private static final long COMPACTION_TASK_DELAY = 60 * 20;
+
+	/**
+	 * The period for the compaction task, how long (in ticks) between each check whether the file should be compacted.
+	 */
+	private static final long COMPACTION_TASK_PERIOD = 60 * 20;
+
+	/**
+	 * The stream used to append records to the {@link #file}.
+	 * Only accessed while holding {@link #connectionLock}.
+	 */
+	@Nullable
+	private DataOutputStream changesStream;
+
+	/**
+	 * The current size of the {@link #file} in bytes.
+	 * Only accessed while holding {@link #connectionLock}.
+	 */
+	private long fileSize;
+
+	/**
+	 * The size of the {@link #file} in bytes right after it was last compacted,
+	 * or the size of the records of all current variables after loading.
+	 * Only accessed while holding {@link #connectionLock}.
+	 */
+	private long compactedSize;
+
+	/**
+	 * The compaction task.
+	 *
+	 * @see #shouldCompact()
+	 * @see #compact(boolean)
+	 */
+	@Nullable
+	private Task compactionTask;
+
+	/**
+	 * Create a new binary storage of the given name.
+	 *
+	 * @param type the database type i.e. binary.
+	 */
+	BinaryStorage(String type) {
+		super(type);
+	}
+
+	/**
+	 * Loads the variables in the binary file.
+	 * <p>
+	 * All records are read before any variable is deserialized,
+	 * so only the latest value of each variable is deserialized.
+	 * <p>
+	 * Doesn't lock the connection, as required by
+	 * {@link Variables#variableLoaded(String, Object, VariablesStorage)}.
+	 */
+	@Override
+	protected boolean load_i(SectionNode sectionNode) {
+		SkriptLogger.setNode(null);
+
+		if (file == null) {
+			assert false : this;
+			return false;
+		}
+
+		// The latest record for each variable, null if the variable was deleted
+		Map<String, SerializedVariable.Value> records = new LinkedHashMap<>();
+		long validSize;
+		long actualSize;
+		try {
+			actualSize = file.length();
+			validSize = actualSize == 0 ? 0 : readRecords(Files.newInputStream(file.toPath()), actualSize, records);
+		} catch (IOException e) {
+			Skript.error("An I/O error occurred while loading the variables: " + ExceptionUtils.toString(e));
+			Skript.error("This means that some to all variables could not be loaded!");
+			return false;
+		}
+
+		if (validSize < actualSize) {
+			// The last record was not written completely, remove it to be able to append new records
+			Skript.warning("The end of " + file.getName() + " is incomplete or corrupted (" + (actualSize - validSize) + " bytes), " +
+					"the last variable change before the server stopped might not have been saved.");
+			try {
+				File backupFile = FileUtils.backup(file);
+				Skript.info("Created a backup of " + file.getName() + " as " + backupFile.getName());
+			} catch (IOException e) {
+				Skript.error("Could not backup " + file.getName() + ": " + e.getMessage());
+				return false;
+			}
+			try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+				channel.truncate(validSize);
+			} catch (IOException e) {
+				Skript.error("Could not repair " + file.getName() + ": " + ExceptionUtils.toString(e));
+				return false;
+			}
+		}
+
+		synchronized (connectionLock) {
+			fileSize = validSize;
+			compactedSize = HEADER_SIZE;
+			for (Entry<String, SerializedVariable.Value> entry : records.entrySet()) {
+				SerializedVariable.Value value = entry.getValue();
+				if (value != null)
+					compactedSize += RECORD_HEADER_SIZE + encodePayload(entry.getKey(), value.type, value.data).length;
+			}
+		}
+
+		// Connect before passing the variables on, as they may be moved to or from other storages immediately
+		if (!connect())
+			return false;
+
+		int unsuccessfulVariableCount = 0;
+		StringBuilder invalid = new StringBuilder();
+		for (Entry<String, SerializedVariable.Value> entry : records.entrySet()) {
+			SerializedVariable.Value value = entry.getValue();
+			if (value == null)
+				continue; // deleted
+
+			Object deserializedValue = Classes.deserialize(value.type, value.data);
+			if (deserializedValue == null) {
+				// Couldn't deserialize variable
+				if (invalid.length() != 0)
+					invalid.append(", ");
+
+				invalid.append(entry.getKey());
+				unsuccessfulVariableCount++;
+				continue;
+			}
+
+			Variables.variableLoaded(entry.getKey(), deserializedValue, this);
+		}
+
+		if (unsuccessfulVariableCount > 0) {
+			Skript.error(unsuccessfulVariableCount + " variable" + (unsuccessfulVariableCount == 1 ? "" : "s") +
+					" could not be loaded!");
+			Skript.error("Affected variables: " + invalid);
+		}
+
+		// Start the compaction task
+		compactionTask = new Task(Skript.getInstance(), COMPACTION_TASK_DELAY, COMPACTION_TASK_PERIOD, true) {
+			@Override
+			public void run() {
+				boolean compact;
+				synchronized (connectionLock) {
+					compact = shouldCompact();
+				}
+				if (compact)
+					compact(false);
+			}
+		};
+
+		return true;
+	}
+
+	/**
+	 * Reads all records from the given stream, which is closed afterwards.
+	 * <p>
+	 * Reading stops at the first record that is incomplete or doesn't match its checksum.
+	 *
+	 * @param stream the stream to read the file from.
+	 * @param size the size of the file.
+	 * @param records the map to put the latest record of each variable in, with a {@code null} value for deleted variables.
+	 * @return the amount of bytes that could be read successfully.
+	 * @throws IOException if the file is not a binary variables file, or couldn't be read.
+	 */
+	static long readRecords(InputStream stream, long size, Map<String, SerializedVariable.Value> records) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+			if (size < HEADER_SIZE || in.readInt() != MAGIC)
+				throw new IOException("not a binary variables file");
+			short version = in.readShort();
+			if (version != FORMAT_VERSION)
+				throw new IOException("unsupported binary variables file version " + version);
+
+			long position = HEADER_SIZE;
+			CRC32 checksum = new CRC32();
+			while (position < size) {
+				if (size - position < RECORD_HEADER_SIZE)
+					return position;
+				int length = in.readInt();
+				int expectedChecksum = in.readInt();
+				if (length < 0 || length > MAX_RECORD_SIZE || size - position - RECORD_HEADER_SIZE < length)
+					return position;
+
+				byte[] payload = new byte[length];
+				in.readFully(payload);
+				checksum.reset();
+				checksum.update(payload);
+				if ((int) checksum.getValue() != expectedChecksum)
+					return position;
+
+				try {
+					decodePayload(payload, records);
+				} catch (EOFException e) {
+					// Checksum matched, but the contents are invalid
+					return position;
+				}
+				position += RECORD_HEADER_SIZE + length;
+			}
+			return position;
+		}
+	}
+
+	/**
+	 * Encodes the payload of a record.
+	 *
+	 * @param name the name of the variable.
+	 * @param type the type of the variable, {@code null} to delete the variable.
+	 * @param value the serialized value of the variable, {@code null} iff {@code type} is {@code null}.
+	 * @return the payload.
+	 * @throws IOException if the record couldn't be read again, i.e. if the name or type is too long,
+	 * or if the payload would be larger than {@link #MAX_RECORD_SIZE}.
+	 */
+	static byte[] encodePayload(String name, @Nullable String type, @Nullable byte[] value) throws IOException {
+		if (value != null && value.length > MAX_RECORD_SIZE)
+			throw new IOException("its value is too large (" + value.length + " bytes, at most " + MAX_RECORD_SIZE + " are supported)");
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(name.length() + (value == null ? 4 : value.length + 16));
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeUTF(name);
+			if (type == null || value == null) {
+				out.writeBoolean(false);
+			} else {
+				out.writeBoolean(true);
+				out.writeUTF(type);
+				out.writeInt(value.length);
+				out.write(value);
+			}
+		} catch (UTFDataFormatException e) {
+			// the only exception a DataOutputStream writing to a ByteArrayOutputStream throws
+			throw new IOException("its name or type is too long", e);
+		}
+		if (bytes.size() > MAX_RECORD_SIZE)
+			throw new IOException("its value is too large (" + bytes.size() + " bytes, at most " + MAX_RECORD_SIZE + " are supported)");
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Encodes the payload of a record for the given variable change, see {@link #encodePayload(String, String, byte[])}.
+	 * <p>
+	 * If the change can't be stored, an error is printed, and the variable is deleted instead,
+	 * so that an older value isn't loaded in its place.
+	 *
+	 * @return the payload, or {@code null} if nothing can be stored for this variable.
+	 */
+	private static byte @Nullable [] encodeChange(String name, @Nullable String type, @Nullable byte[] value) {
+		try {
+			return encodePayload(name, type, value);
+		} catch (IOException e) {
+			Skript.error("Cannot save the variable {" + name + "}: " + e.getMessage());
+		}
+		if (type == null)
+			return null;
+		try {
+			return encodePayload(name, null, null);
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Decodes the payload of a record and puts it in the given map.
+	 *
+	 * @param payload the payload.
+	 * @param records the map to put the record in, with a {@code null} value for deleted variables.
+	 * @throws EOFException if the payload is shorter than it should be.
+	 */
+	private static void decodePayload(byte[] payload, Map<String, SerializedVariable.Value> records) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+		String name = in.readUTF();
+		// Remove the old record first, to keep the map in the order of the latest changes
+		records.remove(name);
+		if (!in.readBoolean()) {
+			records.put(name, null);
+			return;
+		}
+		String type = in.readUTF();
+		int length = in.readInt();
+		if (length < 0 || length > in.available())
+			throw new EOFException();
+		byte[] data = new byte[length];
+		in.readFully(data);
+		records.put(name, new SerializedVariable.Value(type, data));
+	}
+
+	/**
+	 * Writes a record to the given stream.
+	 *
+	 * @param out the stream.
+	 * @param payload the payload of the record, see {@link #encodePayload(String, String, byte[])}.
+	 * @return the amount of bytes written.
+	 */
+	static int writeRecord(DataOutputStream out, byte[] payload) throws IOException {
+		CRC32 checksum = new CRC32();
+		checksum.update(payload);
+		out.writeInt(payload.length);
+		out.writeInt((int) checksum.getValue());
+		out.write(payload);
+		return RECORD_HEADER_SIZE + payload.length;
+	}
+
+	/**
+	 * Writes the file header to the given stream.
+	 *
+	 * @param out the stream.
+	 */
+	static void writeHeader(DataOutputStream out) throws IOException {
+		out.writeInt(MAGIC);
+		out.writeShort(FORMAT_VERSION);
+	}
+
+	@Override
+	protected void allLoaded() {
+		// no transaction support
+	}
+
+	@Override
+	protected boolean requiresFile() {
+		return true;
+	}
+
+	@Override
+	protected File getFile(String fileName) {
+		return new File(fileName);
+	}
+
+	/**
+	 * Closes the stream used to append changes.
+	 * <p>
+	 * Unlike for other storages, this doesn't clear the queue of changes,
+	 * as they are appended to the file once it is reconnected.
+	 */
+	@Override
+	protected final void disconnect() {
+		synchronized (connectionLock) {
+			DataOutputStream stream = changesStream;
+			if (stream == null)
+				return;
+			changesStream = null;
+			try {
+				stream.close();
+			} catch (IOException e) {
+				Skript.error("Could not close " + (file == null ? "the variables file" : file.getName()) + ": " + ExceptionUtils.toString(e));
+			}
+		}
+	}
+
+	@Override
+	protected final boolean connect() {
+		synchronized (connectionLock) {
+			assert file != null; // file should be non-null after load
+
+			if (changesStream != null)
+				return true;
+
+			try {
+				DataOutputStream stream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+				if (fileSize == 0) {
+					// New file
+					writeHeader(stream);
+					stream.flush();
+					fileSize = HEADER_SIZE;
+				}
+				changesStream = stream;
+				return true;
+			} catch (IOException e) {
+				//noinspection ThrowableNotThrown
+				Skript.exception(e);
+				return false;
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		super.close();
+		boolean compact;
+		synchronized (connectionLock) {
+			compact = shouldCompact();
+		}
+		if (compact) {
+			compact(true); // also closes the stream
+		} else {
+			if (compactionTask != null)
+				compactionTask.cancel();
+			if (backupTask != null)
+				backupTask.cancel();
+			disconnect();
+		}
+	}
+
+	@Override
+	protected boolean save(String name, @Nullable String type, @Nullable byte[] value) {
+		byte[] payload = encodeChange(name, type, value);
+		if (payload == null)
+			return true; // the error has been printed already
+		synchronized (connectionLock) {
+			DataOutputStream stream = changesStream;
+			if (stream == null)
+				return false; // closed
+			try {
+				fileSize += writeRecord(stream, payload);
+				stream.flush();
+			} catch (IOException e) {
+				Skript.error("Could not save the variable {" + name + "}: " + ExceptionUtils.toString(e));
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Appends all changes of the batch to the file, flushing only once at the end.
+	 */
+	@Override
+	protected boolean saveBatch(List<SerializedVariable> batch) {
+		synchronized (connectionLock) {
+			DataOutputStream stream = changesStream;
+			if (stream == null)
+				return false; // closed
+			try {
+				for (SerializedVariable variable : batch) {
+					SerializedVariable.Value value = variable.value;
+					byte[] payload = value == null
+							? encodeChange(variable.name, null, null)
+							: encodeChange(variable.name, value.type, value.data);
+					if (payload != null)
+						fileSize += writeRecord(stream, payload);
+				}
+				stream.flush();
+			} catch (IOException e) {
+				Skript.error("Could not save " + batch.size() + " variables: " + ExceptionUtils.toString(e));
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Must be called while holding {@link #connectionLock}.
+	 *
+	 * @return whether the file contains enough outdated records to be {@link #compact(boolean) compacted}.
+	 */
+	private boolean shouldCompact() {
+		long outdated = fileSize - compactedSize;
+		return outdated >= MIN_COMPACTION_SIZE && outdated >= compactedSize;
+	}
+
+	/**
+	 * Rewrites the file, keeping only the current value of each variable.
+	 * <p>
+	 * The {@code finalSave} argument is used to determine if
+	 * the {@link #compactionTask compaction} and {@link #backupTask backup} tasks
+	 * should be cancelled, and if the storage should reconnect after compacting.
+	 *
+	 * @param finalSave whether this is the last save in this session or not.
+	 */
+	public final void compact(boolean finalSave) {
+		if (finalSave) {
+			// Cancel compaction and backup tasks, not needed with final save anyway
+			if (compactionTask != null)
+				compactionTask.cancel();
+			if (backupTask != null)
+				backupTask.cancel();
+		}
+
+		// The global variables may be iterated without locking them.
+		// The queued changes are kept and appended to the file once it is reconnected:
+		//  as every change is queued in order, replaying them after the snapshot results in the current values,
+		//  and if compacting fails, they are appended to the old file instead.
+		synchronized (connectionLock) {
+			try {
+				if (file == null) {
+					// This storage requires a file, so file should be nonnull
+					assert false : this;
+					return;
+				}
+
+				disconnect();
+
+				// Write the variables to a temporary file, giving less problems if saving fails
+				File tempFile = new File(file.getParentFile(), file.getName() + ".temp");
+				try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile.toPath())))) {
+					writeHeader(out);
+					long[] size = {HEADER_SIZE};
+					forEachStoredVariable((name, value) -> {
+						SerializedVariable.Value serializedValue = Classes.serialize(value);
+						if (serializedValue == null)
+							return;
+						byte[] payload = encodeChange(name, serializedValue.type, serializedValue.data);
+						if (payload != null)
+							size[0] += writeRecord(out, payload);
+					});
+					out.close();
+					FileUtils.move(tempFile, file, true);
+					fileSize = size[0];
+					compactedSize = size[0];
+				} catch (IOException e) {
+					Skript.error("Unable to compact the database '" + getUserConfigurationName() +
+							"' (no variables are lost): " + ExceptionUtils.toString(e));
+				}
+			} finally {
+				// Reconnect if needed
+				if (!finalSave)
+					connect();
+			}
+		}
+	}
+
+}
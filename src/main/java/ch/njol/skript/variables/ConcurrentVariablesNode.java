@@ -0,0 +1,191 @@
+package ch.njol.skript.variables;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A branch of the global variable tree that may be read and iterated by any thread,
+ * without locking and without risking a {@link java.util.ConcurrentModificationException}.
+ * <p>
+ * This mirrors the {@link java.util.TreeMap} branches used by {@link VariablesMap} for local variables:
+ * the {@code null} key holds the value of the list variable itself
+ * (e.g. the value of {@code {list}} for the branch {@code {list::*}}),
+ * which is iterated first, and all other keys are ordered using {@link VariablesMap#VARIABLE_NAME_COMPARATOR}.
+ * <p>
+ * Iteration is weakly consistent: it reflects the state of the node at some point
+ * at or since the creation of the iterator.
+ */
+final class ConcurrentVariablesNode extends AbstractMap<String, Object> {
+
+	/**
+	 * The children of this node, excluding the value stored under the {@code null} key.
+	 */
+	private final ConcurrentSkipListMap<String, Object> children = new ConcurrentSkipListMap<>(VariablesMap.VARIABLE_NAME_COMPARATOR);
+
+	/**
+	 * The value stored under the {@code null} key.
+	 */
+	private volatile @Nullable Object value;
+
+	/**
+	 * The amount of children in {@link #children},
+	 * tracked separately as {@link ConcurrentSkipListMap#size()} is not a constant-time operation.
+	 */
+	private final AtomicInteger childCount = new AtomicInteger();
+
+	/**
+	 * The ranked values of the children, created when this list is first ranked and kept up to date afterwards.
+	 */
+	private volatile @Nullable RankedValues ranking;
+
+	@Override
+	public @Nullable Object get(@Nullable Object key) {
+		if (key == null)
+			return value;
+		return children.get(key);
+	}
+
+	@Override
+	public boolean containsKey(@Nullable Object key) {
+		if (key == null)
+			return value != null;
+		return children.containsKey(key);
+	}
+
+	@Override
+	public @Nullable Object put(@Nullable String key, Object value) {
+		assert value != null;
+		if (key == null) {
+			Object previous = this.value;
+			this.value = value;
+			return previous;
+		}
+		Object previous = children.put(key, value);
+		if (previous == null)
+			childCount.incrementAndGet();
+		RankedValues ranking = this.ranking;
+		if (ranking != null)
+			ranking.update(key, value);
+		return previous;
+	}
+
+	@Override
+	public @Nullable Object remove(@Nullable Object key) {
+		if (key == null) {
+			Object previous = value;
+			value = null;
+			return previous;
+		}
+		Object previous = children.remove(key);
+		if (previous != null) {
+			childCount.decrementAndGet();
+			RankedValues ranking = this.ranking;
+			if (ranking != null)
+				ranking.update((String) key, null);
+		}
+		return previous;
+	}
+
+	@Override
+	public int size() {
+		return childCount.get() + (value != null ? 1 : 0);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return value == null && children.isEmpty();
+	}
+
+	@Override
+	public void clear() {
+		value = null;
+		children.keySet().forEach(this::remove);
+	}
+
+	/**
+	 * Gets the ranked values of the children of this node, ranking them if this node was not ranked before.
+	 * Once ranked, the ranking is updated whenever a child is changed.
+	 *
+	 * @return the ranked values
+	 */
+	RankedValues getRanking() {
+		RankedValues ranking = this.ranking;
+		if (ranking != null)
+			return ranking;
+		synchronized (this) {
+			ranking = this.ranking;
+			if (ranking != null)
+				return ranking;
+			ranking = new RankedValues();
+			// publish the ranking first, so children changed while ranking are updated by the modifying thread
+			this.ranking = ranking;
+			for (String key : children.keySet())
+				ranking.rank(key, children);
+		}
+		return ranking;
+	}
+
+	@Override
+	public Set<Entry<String, Object>> entrySet() {
+		return new AbstractSet<>() {
+			@Override
+			public Iterator<Entry<String, Object>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return ConcurrentVariablesNode.this.size();
+			}
+		};
+	}
+
+	/**
+	 * Iterates over the value under the {@code null} key (if present), followed by all children in order.
+	 * Entries are immutable snapshots of the mappings at the time they were reached.
+	 */
+	private final class EntryIterator implements Iterator<Entry<String, Object>> {
+
+		private final Iterator<Entry<String, Object>> childIterator = children.entrySet().iterator();
+
+		private @Nullable Object nodeValue = value;
+
+		private @Nullable Entry<String, Object> last;
+
+		@Override
+		public boolean hasNext() {
+			return nodeValue != null || childIterator.hasNext();
+		}
+
+		@Override
+		public Entry<String, Object> next() {
+			if (nodeValue != null) {
+				last = new SimpleImmutableEntry<>(null, nodeValue);
+				nodeValue = null;
+			} else if (childIterator.hasNext()) {
+				last = childIterator.next();
+			} else {
+				throw new NoSuchElementException();
+			}
+			return last;
+		}
+
+		@Override
+		public void remove() {
+			if (last == null)
+				throw new IllegalStateException();
+			ConcurrentVariablesNode.this.remove(last.getKey());
+			last = null;
+		}
+
+	}
+
+}
@@ -1,6 +1,8 @@
 package ch.njol.skript.variables;
 
 import ch.njol.skript.Skript;
+import ch.njol.skript.classes.ClassInfo;
+import ch.njol.skript.classes.Serializer;
 import ch.njol.skript.config.SectionNode;
 import ch.njol.skript.lang.Variable;
 import ch.njol.skript.log.SkriptLogger;
@@ -13,19 +15,38 @@ import ch.njol.skript.util.Version;
 import ch.njol.util.NotifyingReference;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.EOFException;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
-import java.util.TreeMap;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -57,13 +78,28 @@ public class FlatFileStorage extends VariablesStorage {
 	 */
 	private static final long SAVE_TASK_PERIOD = 5 * 60 * 20;
 
+	/**
+	 * The minimum size of the CSV file in bytes for it to be {@link #loadInParallel(StringBuilder) loaded in parallel}.
+	 */
+	private static final long PARALLEL_LOADING_THRESHOLD = 16 * 1024 * 1024;
+
+	/**
+	 * The amount of chunks the CSV file is split into per worker thread when loading in parallel,
+	 * so the main thread can process the first chunks while the others are still being loaded.
+	 */
+	private static final int CHUNKS_PER_THREAD = 4;
+
+	/**
+	 * The size of the buffer each worker thread reads the CSV file with when loading in parallel.
+	 */
+	private static final int READ_BUFFER_SIZE = 1024 * 1024;
+
 	/**
 	 * A reference to the {@link PrintWriter} that is used to write
 	 * to the {@link #file}.
 	 * <p>
 	 * A Lock on this object must be acquired after connectionLock
-	 * if that lock is used
-	 * (and thus also after {@link Variables#getReadLock()}).
+	 * if that lock is used.
 	 */
 	private final NotifyingReference<PrintWriter> changesWriter = new NotifyingReference<>();
 
@@ -85,6 +121,22 @@ public class FlatFileStorage extends VariablesStorage {
 	 */
 	private final AtomicInteger changes = new AtomicInteger(0);
 
+	/**
+	 * The location of each segment in the {@link #file} as of the last {@link #saveVariables(boolean) full save}, by segment name.
+	 * A segment contains all variables of this storage with the same {@link #getSegmentName(String) first name part},
+	 * e.g. {@code {stats}} and {@code {stats::*}}, which are always written next to each other.
+	 * <p>
+	 * Empty if the file was not written by a full save yet. Only accessed while holding {@link #connectionLock}.
+	 */
+	private Map<String, Segment> segments = new HashMap<>();
+
+	/**
+	 * The names of the segments that changed since the last full save.
+	 * A full save only serializes the variables of these segments,
+	 * the other ones are copied from the current file.
+	 */
+	private final Set<String> changedSegments = new HashSet<>();
+
 	/**
 	 * The save task.
 	 *
@@ -144,76 +196,85 @@ public class FlatFileStorage extends VariablesStorage {
 		Version v2_1 = new Version(2, 1);
 		boolean update2_1 = false;
 
-		try (BufferedReader reader = new BufferedReader(
-				new InputStreamReader(Files.newInputStream(file.toPath()), FILE_CHARSET))) {
-			String line;
-			int lineNum = 0;
-			while ((line = reader.readLine()) != null) {
-				lineNum++;
-
-				line = line.trim();
-
-				if (line.isEmpty() || line.startsWith("#")) {
-					// Line doesn't contain variable
-					if (line.startsWith("# version:")) {
-						// Update the version accordingly
-
-						try {
-							csvSkriptVersion = new Version(line.substring("# version:".length()).trim());
-							update2_0_beta3 = csvSkriptVersion.isSmallerThan(v2_0_beta3);
-							update2_1 = csvSkriptVersion.isSmallerThan(v2_1);
-						} catch (IllegalArgumentException ignored) {
+		if (canLoadInParallel(v2_1)) {
+			try {
+				unsuccessfulVariableCount = loadInParallel(invalid);
+			} catch (IOException e) {
+				loadError = true;
+				ioException = e;
+			}
+		} else {
+			try (BufferedReader reader = new BufferedReader(
+					new InputStreamReader(Files.newInputStream(file.toPath()), FILE_CHARSET))) {
+				String line;
+				int lineNum = 0;
+				while ((line = reader.readLine()) != null) {
+					lineNum++;
+
+					line = line.trim();
+
+					if (line.isEmpty() || line.startsWith("#")) {
+						// Line doesn't contain variable
+						if (line.startsWith("# version:")) {
+							// Update the version accordingly
+
+							try {
+								csvSkriptVersion = new Version(line.substring("# version:".length()).trim());
+								update2_0_beta3 = csvSkriptVersion.isSmallerThan(v2_0_beta3);
+								update2_1 = csvSkriptVersion.isSmallerThan(v2_1);
+							} catch (IllegalArgumentException ignored) {
+							}
 						}
-					}
 
-					continue;
-				}
-
-				String[] split = splitCSV(line);
-				if (split == null || split.length != 3) {
-					// Invalid CSV line
-
-					Skript.error("invalid amount of commas in line " + lineNum + " ('" + line + "')");
-					if (invalid.length() != 0)
-						invalid.append(", ");
-
-					invalid.append(split == null ? "<unknown>" : split[0]);
-					unsuccessfulVariableCount++;
-					continue;
-				}
-
-				if (split[1].equals("null")) {
-					Variables.variableLoaded(split[0], null, this);
-				} else {
-					Object deserializedValue;
-					if (update2_1) {
-						// Use old deserialization if variables come from old Skript version
-						deserializedValue = Classes.deserialize(split[1], split[2]);
-					} else {
-						deserializedValue = Classes.deserialize(split[1], decode(split[2]));
+						continue;
 					}
 
-					if (deserializedValue == null) {
-						// Couldn't deserialize variable
+					String[] split = splitCSV(line);
+					if (split == null || split.length != 3) {
+						// Invalid CSV line
+
+						Skript.error("invalid amount of commas in line " + lineNum + " ('" + line + "')");
 						if (invalid.length() != 0)
 							invalid.append(", ");
 
-						invalid.append(split[0]);
+						invalid.append(split == null ? "<unknown>" : split[0]);
 						unsuccessfulVariableCount++;
 						continue;
 					}
 
-					// Legacy
-					if (deserializedValue instanceof String && update2_0_beta3) {
-						deserializedValue = Utils.replaceChatStyles((String) deserializedValue);
-					}
+					if (split[1].equals("null")) {
+						Variables.variableLoaded(split[0], null, this);
+					} else {
+						Object deserializedValue;
+						if (update2_1) {
+							// Use old deserialization if variables come from old Skript version
+							deserializedValue = Classes.deserialize(split[1], split[2]);
+						} else {
+							deserializedValue = Classes.deserialize(split[1], decode(split[2]));
+						}
 
-					Variables.variableLoaded(split[0], deserializedValue, this);
+						if (deserializedValue == null) {
+							// Couldn't deserialize variable
+							if (invalid.length() != 0)
+								invalid.append(", ");
+
+							invalid.append(split[0]);
+							unsuccessfulVariableCount++;
+							continue;
+						}
+
+						// Legacy
+						if (deserializedValue instanceof String && update2_0_beta3) {
+							deserializedValue = Utils.replaceChatStyles((String) deserializedValue);
+						}
+
+						Variables.variableLoaded(split[0], deserializedValue, this);
+					}
 				}
+			} catch (IOException e) {
+				loadError = true;
+				ioException = e;
 			}
-		} catch (IOException e) {
-			loadError = true;
-			ioException = e;
 		}
 
 		if (ioException != null || unsuccessfulVariableCount > 0 || update2_1) {
@@ -268,6 +329,311 @@ public class FlatFileStorage extends VariablesStorage {
 		return ioException == null;
 	}
 
+	/**
+	 * Checks whether the CSV file is large enough to be loaded by {@link #loadInParallel(StringBuilder)},
+	 * and was not created by a Skript version that requires updating legacy values while loading.
+	 *
+	 * @param v2_1 the oldest Skript version whose files can be loaded in parallel.
+	 * @return whether the file can be loaded in parallel.
+	 */
+	private boolean canLoadInParallel(Version v2_1) {
+		assert file != null;
+		if (file.length() < PARALLEL_LOADING_THRESHOLD || Runtime.getRuntime().availableProcessors() < 2)
+			return false;
+
+		// Find the version in the header of the file
+		try (BufferedReader reader = new BufferedReader(
+				new InputStreamReader(Files.newInputStream(file.toPath()), FILE_CHARSET))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.startsWith("# version:")) {
+					try {
+						return !new Version(line.substring("# version:".length()).trim()).isSmallerThan(v2_1);
+					} catch (IllegalArgumentException ignored) {
+						return true;
+					}
+				}
+				if (!line.isEmpty() && !line.startsWith("#"))
+					return true; // no version header
+			}
+		} catch (IOException e) {
+			return false; // reported by the sequential loading
+		}
+		return true;
+	}
+
+	/**
+	 * Loads the variables in the CSV file using multiple threads.
+	 * <p>
+	 * The file is split into line-aligned chunks, which are read and parsed by a pool of worker threads.
+	 * Values whose type doesn't {@link Serializer#mustSyncDeserialization() require the main thread}
+	 * are deserialized by the workers as well. The remaining values are deserialized on the main thread,
+	 * which passes the variables of each chunk on to {@link Variables#variablesLoaded(List, VariablesStorage)}
+	 * in the order of the file, while the workers continue with the next chunks.
+	 *
+	 * @param invalid the names of the variables that could not be loaded are appended to this.
+	 * @return the amount of variables that could not be loaded.
+	 * @throws IOException if the file could not be read.
+	 */
+	private int loadInParallel(StringBuilder invalid) throws IOException {
+		assert file != null;
+		int unsuccessfulVariableCount = 0;
+
+		int threads = Runtime.getRuntime().availableProcessors();
+		AtomicInteger threadCount = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(threads,
+				runnable -> Skript.newThread(runnable, "Skript variable loader #" + threadCount.incrementAndGet()));
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long[] bounds = splitIntoChunks(channel, threads * CHUNKS_PER_THREAD);
+			List<Future<LoadedChunk>> chunks = new ArrayList<>(bounds.length - 1);
+			for (int i = 0; i < bounds.length - 1; i++) {
+				long start = bounds[i];
+				long end = bounds[i + 1];
+				chunks.add(executor.submit(() -> loadChunk(channel, start, end)));
+			}
+
+			int lineNum = 0;
+			for (Future<LoadedChunk> future : chunks) {
+				LoadedChunk chunk;
+				try {
+					chunk = future.get();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("Interrupted while loading variables");
+				} catch (ExecutionException e) {
+					throw new IOException(e.getCause());
+				}
+
+				for (LoadedChunk.InvalidLine line : chunk.invalidLines) {
+					Skript.error("invalid amount of commas in line " + (lineNum + line.lineNum) + " ('" + line.line + "')");
+					if (invalid.length() != 0)
+						invalid.append(", ");
+
+					invalid.append(line.name);
+					unsuccessfulVariableCount++;
+				}
+
+				List<Entry<String, Object>> loaded = new ArrayList<>(chunk.variables.size());
+				for (LoadedChunk.LoadedVariable variable : chunk.variables) {
+					Object value = variable.value;
+					if (value == null && variable.type != null && variable.data != null) {
+						// Must be deserialized on the main thread
+						value = Classes.deserialize(variable.type, variable.data);
+					}
+
+					if (value == null) {
+						// Couldn't deserialize variable
+						if (invalid.length() != 0)
+							invalid.append(", ");
+
+						invalid.append(variable.name);
+						unsuccessfulVariableCount++;
+						continue;
+					}
+
+					loaded.add(new SimpleImmutableEntry<>(variable.name, value));
+				}
+				Variables.variablesLoaded(loaded, this);
+
+				lineNum += chunk.lineCount;
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		return unsuccessfulVariableCount;
+	}
+
+	/**
+	 * Splits the file into about the given amount of chunks,
+	 * each of which starts at the start of a line.
+	 *
+	 * @param channel the channel of the file.
+	 * @param chunkCount the preferred amount of chunks.
+	 * @return the offsets of the chunks in the file, followed by the size of the file.
+	 */
+	static long[] splitIntoChunks(FileChannel channel, int chunkCount) throws IOException {
+		long size = channel.size();
+		long[] bounds = new long[chunkCount + 1];
+		int count = 1; // bounds[0] = 0
+
+		ByteBuffer buffer = ByteBuffer.allocate(8192);
+		for (int i = 1; i < chunkCount; i++) {
+			long position = Math.max(size / chunkCount * i, bounds[count - 1]);
+
+			// Find the start of the next line, starting at the byte before the position
+			//  as the position may already be the start of a line
+			position = Math.max(position - 1, 0);
+			search: while (position < size) {
+				buffer.clear();
+				int read = channel.read(buffer, position);
+				if (read <= 0)
+					break;
+				for (int j = 0; j < read; j++) {
+					if (buffer.get(j) == '\n') {
+						position += j + 1;
+						break search;
+					}
+				}
+				position += read;
+			}
+
+			if (position > bounds[count - 1] && position < size)
+				bounds[count++] = position;
+		}
+
+		bounds[count++] = size;
+		return Arrays.copyOf(bounds, count);
+	}
+
+	/**
+	 * Reads and parses the lines of a chunk of the file, deserializing all values that can be deserialized off the main thread.
+	 * <p>
+	 * Called from the worker threads of {@link #loadInParallel(StringBuilder)}.
+	 *
+	 * @param channel the channel of the file.
+	 * @param start the offset of the first line of the chunk.
+	 * @param end the offset after the last line of the chunk.
+	 * @return the loaded chunk.
+	 */
+	static LoadedChunk loadChunk(FileChannel channel, long start, long end) throws IOException {
+		LoadedChunk chunk = new LoadedChunk();
+
+		byte[] bytes = new byte[READ_BUFFER_SIZE];
+		int filled = 0; // the amount of bytes of the chunk in the array
+		long position = start;
+		while (position < end || filled > 0) {
+			if (position < end) {
+				if (filled == bytes.length) // a line longer than the buffer
+					bytes = Arrays.copyOf(bytes, bytes.length * 2);
+
+				int read = channel.read(ByteBuffer.wrap(bytes, filled, (int) Math.min(bytes.length - filled, end - position)), position);
+				if (read < 0)
+					throw new EOFException();
+				position += read;
+				filled += read;
+			}
+
+			// Parse all complete lines, and the last line once the end of the chunk is reached
+			int lineStart = 0;
+			for (int i = 0; i < filled; i++) {
+				if (bytes[i] == '\n') {
+					chunk.parseLine(new String(bytes, lineStart, i - lineStart, FILE_CHARSET));
+					lineStart = i + 1;
+				}
+			}
+			if (position >= end && lineStart < filled) {
+				chunk.parseLine(new String(bytes, lineStart, filled - lineStart, FILE_CHARSET));
+				lineStart = filled;
+			}
+
+			// Keep the incomplete line for the next read
+			System.arraycopy(bytes, lineStart, bytes, 0, filled - lineStart);
+			filled -= lineStart;
+		}
+
+		return chunk;
+	}
+
+	/**
+	 * The variables of a chunk of the file loaded by {@link #loadChunk(FileChannel, long, long)}.
+	 */
+	static final class LoadedChunk {
+
+		/**
+		 * The amount of lines in this chunk.
+		 */
+		int lineCount;
+
+		/**
+		 * The loaded variables, in the order of the file.
+		 */
+		final List<LoadedVariable> variables = new ArrayList<>();
+
+		/**
+		 * The lines that are not valid CSV lines.
+		 */
+		final List<InvalidLine> invalidLines = new ArrayList<>();
+
+		/**
+		 * Parses a line of the file, deserializing its value if that doesn't require the main thread.
+		 *
+		 * @param line the line.
+		 */
+		void parseLine(String line) {
+			lineCount++;
+
+			line = line.trim();
+			if (line.isEmpty() || line.startsWith("#"))
+				return;
+
+			String[] split = splitCSV(line);
+			if (split == null || split.length != 3) {
+				invalidLines.add(new InvalidLine(lineCount, line, split == null ? "<unknown>" : split[0]));
+				return;
+			}
+
+			if (split[1].equals("null"))
+				return; // ignored by Variables#variableLoaded
+
+			ClassInfo<?> type = Classes.getClassInfoNoError(split[1]);
+			Serializer<?> serializer = type == null ? null : type.getSerializer();
+			if (type == null || serializer == null) {
+				variables.add(new LoadedVariable(split[0], null, null, null));
+				return;
+			}
+
+			byte[] data = decode(split[2]);
+			if (serializer.mustSyncDeserialization()) {
+				variables.add(new LoadedVariable(split[0], null, type, data));
+			} else {
+				variables.add(new LoadedVariable(split[0], Classes.deserialize(type, data), null, null));
+			}
+		}
+
+		/**
+		 * A variable of a chunk, with either its deserialized value,
+		 * the data to deserialize on the main thread, or neither if the value is invalid.
+		 */
+		static final class LoadedVariable {
+
+			final String name;
+			final @Nullable Object value;
+			final @Nullable ClassInfo<?> type;
+			final @Nullable byte[] data;
+
+			LoadedVariable(String name, @Nullable Object value, @Nullable ClassInfo<?> type, @Nullable byte[] data) {
+				this.name = name;
+				this.value = value;
+				this.type = type;
+				this.data = data;
+			}
+
+		}
+
+		/**
+		 * A line of a chunk that is not a valid CSV line.
+		 */
+		static final class InvalidLine {
+
+			/**
+			 * The line number, relative to the start of the chunk.
+			 */
+			final int lineNum;
+			final String line;
+			final String name;
+
+			InvalidLine(int lineNum, String line, String name) {
+				this.lineNum = lineNum;
+				this.line = line;
+				this.name = name;
+			}
+
+		}
+
+	}
+
 	@Override
 	protected void allLoaded() {
 		// no transaction support
@@ -321,6 +687,13 @@ public class FlatFileStorage extends VariablesStorage {
 		}
 	}
 
+	@Override
+	protected void variableQueued(String name) {
+		synchronized (changedSegments) {
+			changedSegments.add(getSegmentName(name));
+		}
+	}
+
 	@Override
 	public void close() {
 		clearChangesQueue();
@@ -339,17 +712,10 @@ public class FlatFileStorage extends VariablesStorage {
 					return true;
 				}
 
-				// Get the PrintWriter, waiting for it to be available if needed
-				PrintWriter printWriter;
-				while ((printWriter = changesWriter.get()) == null) {
-					try {
-						changesWriter.wait();
-					} catch (InterruptedException e) {
-						// Re-interrupt thread
-						Thread.currentThread().interrupt();
-					}
-				}
+				// Also called directly while variables are moved between storages
+				variableQueued(name);
 
+				PrintWriter printWriter = getChangesWriter();
 				writeCSV(printWriter, name, type, value == null ? "" : encode(value));
 				printWriter.flush();
 
@@ -359,9 +725,59 @@ public class FlatFileStorage extends VariablesStorage {
 		return true;
 	}
 
+	/**
+	 * Appends all changes of the batch to the file, flushing only once at the end.
+	 */
+	@Override
+	protected boolean saveBatch(List<SerializedVariable> batch) {
+		synchronized (connectionLock) {
+			synchronized (changesWriter) {
+				PrintWriter printWriter = getChangesWriter();
+				int written = 0;
+				for (SerializedVariable variable : batch) {
+					SerializedVariable.Value value = variable.value;
+					if (value == null) {
+						if (!loaded)
+							continue; // see save(String, String, byte[])
+						writeCSV(printWriter, variable.name, null, "");
+					} else {
+						writeCSV(printWriter, variable.name, value.type, encode(value.data));
+					}
+					written++;
+				}
+				printWriter.flush();
+
+				changes.addAndGet(written);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the {@link PrintWriter} for appending changes, waiting for it to be available if needed.
+	 * Must be called while synchronized on {@link #changesWriter}.
+	 *
+	 * @return the print writer.
+	 */
+	private PrintWriter getChangesWriter() {
+		PrintWriter printWriter;
+		while ((printWriter = changesWriter.get()) == null) {
+			try {
+				changesWriter.wait();
+			} catch (InterruptedException e) {
+				// Re-interrupt thread
+				Thread.currentThread().interrupt();
+			}
+		}
+		return printWriter;
+	}
+
 	/**
 	 * Completely rewrites the CSV file.
 	 * <p>
+	 * Only the variables of {@link #changedSegments changed segments} are serialized,
+	 * the lines of all other segments are copied from the current file.
+	 * <p>
 	 * The {@code finalSave} argument is used to determine if
 	 * the {@link #saveTask save} and {@link #backupTask backup} tasks
 	 * should be cancelled, and if the storage should reconnect after saving.
@@ -377,130 +793,233 @@ public class FlatFileStorage extends VariablesStorage {
 				backupTask.cancel();
 		}
 
-		try {
-			// Acquire read lock
-			Variables.getReadLock().lock();
+		// The global variables may be iterated without locking them,
+		//  changes made during the iteration are written to the new file once it is reconnected
+		synchronized (connectionLock) {
+			try {
+				if (file == null) {
+					// This storage requires a file, so file should be nonnull
+					assert false : this;
+					return;
+				}
 
-			synchronized (connectionLock) {
-				try {
-					if (file == null) {
-						// This storage requires a file, so file should be nonnull
-						assert false : this;
+				disconnect();
+
+				if (loadError) {
+					// There was an error while loading the CSV file, create a backup of it
+					try {
+						File backup = FileUtils.backup(file);
+						Skript.info("Created a backup of the old " + file.getName() + " as " + backup.getName());
+						loadError = false;
+					} catch (IOException e) {
+						Skript.error("Could not backup the old " + file.getName() + ": " + ExceptionUtils.toString(e));
+						Skript.error("No variables are saved!");
 						return;
 					}
+				}
 
-					disconnect();
-
-					if (loadError) {
-						// There was an error while loading the CSV file, create a backup of it
-						try {
-							File backup = FileUtils.backup(file);
-							Skript.info("Created a backup of the old " + file.getName() + " as " + backup.getName());
-							loadError = false;
-						} catch (IOException e) {
-							Skript.error("Could not backup the old " + file.getName() + ": " + ExceptionUtils.toString(e));
-							Skript.error("No variables are saved!");
-							return;
+				// Write the variables to a temporary file, giving less problems if saving fails
+				//  (if saving fails during writing to the actual file,
+				//  the data in the actual file may be partially lost)
+				File tempFile = new File(file.getParentFile(), file.getName() + ".temp");
+
+				// Segments that didn't change since the last full save are copied from the current file,
+				//  all queued changes were marked before the queue was cleared by disconnect()
+				Set<String> changed;
+				synchronized (changedSegments) {
+					changed = new HashSet<>(changedSegments);
+					changedSegments.clear();
+				}
+				Map<String, Segment> previousSegments = segments;
+				Map<String, Segment> newSegments = new HashMap<>();
+				segments = new HashMap<>(); // in case saving fails
+
+				try (FileChannel previous = previousSegments.isEmpty() ? null : FileChannel.open(file.toPath(), StandardOpenOption.READ);
+					 FileChannel out = FileChannel.open(tempFile.toPath(),
+						 StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+					SegmentedWriter writer = new SegmentedWriter(out, previous);
+					PrintWriter pw = writer.printWriter;
+					pw.println("# === Skript's variable storage ===");
+					pw.println("# Please do not modify this file manually!");
+					pw.println("#");
+					pw.println("# version: " + Skript.getVersion());
+					pw.println();
+					for (Entry<String, Object> topLevelEntry : Variables.getVariables().entrySet()) {
+						String segmentName = topLevelEntry.getKey();
+						Segment previousSegment = changed.contains(segmentName) ? null : previousSegments.get(segmentName);
+
+						long start = writer.getPosition();
+						if (previousSegment != null) {
+							writer.copy(previousSegment);
+						} else {
+							forEachStoredVariable(Collections.singletonMap(segmentName, topLevelEntry.getValue()), (name, value) -> {
+								// Serialize the value and write the CSV line
+								SerializedVariable.Value serializedValue = Classes.serialize(value);
+								if (serializedValue != null)
+									writeCSV(pw, name, serializedValue.type, encode(serializedValue.data));
+							});
 						}
+						long end = writer.getPosition();
+						if (end > start)
+							newSegments.put(segmentName, new Segment(start, end - start));
 					}
-
-					// Write the variables to a temporary file, giving less problems if saving fails
-					//  (if saving fails during writing to the actual file,
-					//  the data in the actual file may be partially lost)
-					File tempFile = new File(file.getParentFile(), file.getName() + ".temp");
-
-					try (PrintWriter pw = new PrintWriter(tempFile, "UTF-8")) {
-						pw.println("# === Skript's variable storage ===");
-						pw.println("# Please do not modify this file manually!");
-						pw.println("#");
-						pw.println("# version: " + Skript.getVersion());
-						pw.println();
-						save(pw, "", Variables.getVariables());
-						pw.println();
-						pw.flush();
-						pw.close();
-						FileUtils.move(tempFile, file, true);
-					} catch (IOException e) {
-						Skript.error("Unable to make a final save of the database '" + getUserConfigurationName() +
-								"' (no variables are lost): " + ExceptionUtils.toString(e));
-						// FIXME happens at random - check locks/threads
-					}
-				} finally {
-					// Reconnect if needed
-					if (!finalSave) {
-						connect();
-					}
+					pw.println();
+					writer.finish();
+					out.close();
+					if (previous != null)
+						previous.close(); // must be closed before the file can be replaced on some systems
+					FileUtils.move(tempFile, file, true);
+					segments = newSegments;
+				} catch (IOException e) {
+					Skript.error("Unable to make a final save of the database '" + getUserConfigurationName() +
+							"' (no variables are lost): " + ExceptionUtils.toString(e));
+					// FIXME happens at random - check locks/threads
 				}
-			}
-		} finally {
-			Variables.getReadLock().unlock();
-			boolean gotWriteLock = Variables.variablesLock.writeLock().tryLock();
-			if (gotWriteLock) { // Only process queue now if it doesn't require us to wait
-				try {
-					Variables.processChangeQueue();
-				} finally {
-					Variables.variablesLock.writeLock().unlock();
+			} finally {
+				// Reconnect if needed
+				if (!finalSave) {
+					connect();
 				}
 			}
 		}
 	}
 
 	/**
-	 * Saves the variables.
-	 * <p>
-	 * This method uses the sorted variables map to save the variables in order.
+	 * Gets the name of the segment the given variable belongs to, i.e. the first part of its name.
 	 *
-	 * @param pw the print writer to write the CSV lines too.
-	 * @param parent The parent's name with {@link Variable#SEPARATOR} at the end.
-	 * @param map the variables map.
-	 */
-	@SuppressWarnings("unchecked")
-	private void save(PrintWriter pw, String parent, TreeMap<String, Object> map) {
-		if (parent.startsWith(Variable.EPHEMERAL_VARIABLE_TOKEN))
-			// Skip ephemeral variables
-			return;
-
-		// Iterate over all children
-		for (Entry<String, Object> childEntry : map.entrySet()) {
-			Object childNode = childEntry.getValue();
-			String childKey = childEntry.getKey();
-
-			if (childNode == null)
-				continue; // Leaf node
-
-			if (childNode instanceof TreeMap) {
-				// TreeMap found, recurse
-				save(pw, parent + childKey + Variable.SEPARATOR, (TreeMap<String, Object>) childNode);
-			} else {
-				// Remove variable separator if needed
-				String name = childKey == null ? parent.substring(0, parent.length() - Variable.SEPARATOR.length()) : parent + childKey;
+	 * @param name the name of the variable.
+	 * @return the name of the segment.
+	 * @see #segments
+	 */
+	static String getSegmentName(String name) {
+		int separator = name.indexOf(Variable.SEPARATOR);
+		return separator == -1 ? name : name.substring(0, separator);
+	}
 
-				if (name.startsWith(Variable.EPHEMERAL_VARIABLE_TOKEN))
-					// Skip ephemeral variables
-					continue;
+	/**
+	 * The location of a segment in the {@link #file}.
+	 *
+	 * @see #segments
+	 */
+	static final class Segment {
 
-				try {
-					// Loop over storages to make sure this variable is ours to store
-					for (VariablesStorage storage : Variables.STORAGES) {
-						if (storage.accept(name)) {
-							if (storage == this) {
-								// Serialize the value
-								SerializedVariable.Value serializedValue = Classes.serialize(childNode);
-
-								// Write the CSV line
-								if (serializedValue != null)
-									writeCSV(pw, name, serializedValue.type, encode(serializedValue.data));
-							}
+		final long offset;
+		final long length;
 
-							break;
-						}
-					}
-				} catch (Exception ex) {
-					//noinspection ThrowableNotThrown
-					Skript.exception(ex, "Error saving variable named " + name);
+		Segment(long offset, long length) {
+			this.offset = offset;
+			this.length = length;
+		}
+
+	}
+
+	/**
+	 * Writes a new CSV file, copying unchanged {@link Segment segments} from the previous file
+	 * instead of serializing their variables again.
+	 * Adjacent segments are copied together.
+	 */
+	static final class SegmentedWriter {
+
+		private final FileChannel channel;
+		private final @Nullable FileChannel previous;
+		private final BufferedOutputStream buffer;
+
+		/**
+		 * The writer to write new CSV lines to.
+		 */
+		final PrintWriter printWriter;
+
+		/**
+		 * The amount of bytes written to the new file, including bytes that are yet to be copied.
+		 */
+		private long position;
+
+		/**
+		 * The range of the previous file that is yet to be copied.
+		 */
+		private long copyStart, copyEnd;
+
+		SegmentedWriter(FileChannel channel, @Nullable FileChannel previous) {
+			this.channel = channel;
+			this.previous = previous;
+			this.buffer = new BufferedOutputStream(Channels.newOutputStream(channel));
+			this.printWriter = new PrintWriter(new OutputStreamWriter(new OutputStream() {
+				@Override
+				public void write(int b) throws IOException {
+					flushCopy();
+					buffer.write(b);
+					position++;
 				}
+
+				@Override
+				public void write(byte[] bytes, int offset, int length) throws IOException {
+					flushCopy();
+					buffer.write(bytes, offset, length);
+					position += length;
+				}
+
+				@Override
+				public void flush() {
+					// only flushed by finish()
+				}
+			}, FILE_CHARSET));
+		}
+
+		/**
+		 * @return the amount of bytes written to the new file so far.
+		 */
+		long getPosition() {
+			printWriter.flush(); // flush the characters encoded so far
+			return position;
+		}
+
+		/**
+		 * Copies the given segment from the previous file.
+		 *
+		 * @param segment the segment.
+		 */
+		void copy(Segment segment) throws IOException {
+			printWriter.flush();
+			if (copyEnd != segment.offset || copyStart == copyEnd) {
+				flushCopy();
+				copyStart = segment.offset;
+				copyEnd = segment.offset;
+			}
+			copyEnd += segment.length;
+			position += segment.length;
+		}
+
+		/**
+		 * Copies the pending range of the previous file.
+		 */
+		private void flushCopy() throws IOException {
+			if (copyStart == copyEnd)
+				return;
+			assert previous != null;
+			buffer.flush();
+			long copied = 0;
+			while (copied < copyEnd - copyStart) {
+				long transferred = previous.transferTo(copyStart + copied, copyEnd - copyStart - copied, channel);
+				if (transferred <= 0)
+					throw new EOFException("The variables file is shorter than expected");
+				copied += transferred;
 			}
+			copyStart = copyEnd;
 		}
+
+		/**
+		 * Writes everything that is still pending to the new file.
+		 *
+		 * @throws IOException if anything could not be written.
+		 */
+		void finish() throws IOException {
+			printWriter.flush();
+			if (printWriter.checkError())
+				throw new IOException("Could not write the variables file");
+			flushCopy();
+			buffer.flush();
+		}
+
 	}
 
 	/**
@@ -599,7 +1118,7 @@ public class FlatFileStorage extends VariablesStorage {
 	 * @param printWriter the print writer.
 	 * @param values the values, must have a length of {@code 3}.
 	 */
-	private static void writeCSV(PrintWriter printWriter, String... values) {
+	static void writeCSV(PrintWriter printWriter, String... values) {
 		assert values.length == 3; // name, type, value
 
 		for (int i = 0; i < values.length; i++) {
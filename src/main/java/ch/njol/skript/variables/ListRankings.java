@@ -0,0 +1,58 @@
+package ch.njol.skript.variables;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Ranks the numeric values of list variables, e.g. for leaderboards.
+ * <p>
+ * Global list variables are ranked in an order-statistic tree the first time they are ranked,
+ * which is then kept up to date whenever the list is changed,
+ * so the rank of an index and the indices of a range of ranks can be found in logarithmic time.
+ * Other lists are ranked again every time.
+ * <p>
+ * Only values that are numbers are ranked, and indices that also have a sub-list are not ranked.
+ * Equal values are ranked by their indices.
+ */
+public final class ListRankings {
+
+	private ListRankings() {}
+
+	/**
+	 * Gets the rank of the value of an index of a list.
+	 *
+	 * @param list the list, as returned by {@link Variables#getVariable(String, org.bukkit.event.Event, boolean)}
+	 * @param index the index
+	 * @param descending whether the highest value has the first rank
+	 * @return the rank, starting at 1, or 0 if the index does not have a ranked value
+	 */
+	public static int getRank(Map<String, ?> list, String index, boolean descending) {
+		return getRanking(list).getRank(index, descending);
+	}
+
+	/**
+	 * Gets the indices of a list with the given ranks.
+	 *
+	 * @param list the list, as returned by {@link Variables#getVariable(String, org.bukkit.event.Event, boolean)}
+	 * @param from the first rank, starting at 1
+	 * @param to the last rank, inclusive
+	 * @param descending whether the highest value has the first rank
+	 * @return the indices of the ranks that exist, in order of rank
+	 */
+	public static List<String> getIndices(Map<String, ?> list, int from, int to, boolean descending) {
+		return getRanking(list).getIndices(from, to, descending);
+	}
+
+	private static RankedValues getRanking(Map<String, ?> list) {
+		if (list instanceof ConcurrentVariablesNode node)
+			return node.getRanking();
+		RankedValues ranking = new RankedValues();
+		for (Entry<String, ?> entry : list.entrySet()) {
+			if (entry.getKey() != null)
+				ranking.update(entry.getKey(), entry.getValue());
+		}
+		return ranking;
+	}
+
+}
@@ -0,0 +1,253 @@
+package ch.njol.skript.variables;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The numeric values of a list variable, ordered by value in an order-statistic tree,
+ * such that the rank of an index and the indices of a range of ranks can be found in logarithmic time.
+ * <p>
+ * Values are ordered from lowest to highest, and equal values are ordered by their indices.
+ * Values that are not numbers are not ranked.
+ * <p>
+ * All methods are synchronized, as a list may be ranked from any thread while it is modified.
+ *
+ * @see ListRankings
+ */
+final class RankedValues {
+
+	/**
+	 * The ranked value of each index, to find the node of an index.
+	 */
+	private final Map<String, Number> values = new HashMap<>();
+
+	private @Nullable Node root;
+
+	/**
+	 * Sets the value of an index, or removes the index if the value is not a number.
+	 *
+	 * @param index the index
+	 * @param value the new value of the index, or null if the index was removed
+	 */
+	synchronized void update(String index, @Nullable Object value) {
+		Number previous = value instanceof Number number ? values.put(index, number) : values.remove(index);
+		if (previous != null)
+			root = remove(root, previous, index);
+		if (value instanceof Number number)
+			root = insert(root, new Node(number, index));
+	}
+
+	/**
+	 * Ranks the current value of an index of a list, which may be modified concurrently.
+	 * The value is read while holding the lock, so it cannot overwrite a newer {@link #update(String, Object)}.
+	 *
+	 * @param index the index
+	 * @param children the values of the list
+	 */
+	synchronized void rank(String index, Map<String, Object> children) {
+		update(index, children.get(index));
+	}
+
+	/**
+	 * @return the amount of ranked values
+	 */
+	synchronized int size() {
+		return size(root);
+	}
+
+	/**
+	 * Gets the rank of an index, starting at 1 for the lowest value, or for the highest value if descending.
+	 *
+	 * @param index the index
+	 * @param descending whether to rank from the highest value
+	 * @return the rank, or 0 if the index does not have a ranked value
+	 */
+	synchronized int getRank(String index, boolean descending) {
+		Number value = values.get(index);
+		if (value == null)
+			return 0;
+		int rank = 1;
+		Node node = root;
+		while (node != null) {
+			int relation = compare(value, index, node);
+			if (relation == 0) {
+				rank += size(node.left);
+				return descending ? size(root) - rank + 1 : rank;
+			} else if (relation < 0) {
+				node = node.left;
+			} else {
+				rank += size(node.left) + 1;
+				node = node.right;
+			}
+		}
+		throw new IllegalStateException("The index " + index + " is not in the tree");
+	}
+
+	/**
+	 * Gets the indices with the given ranks, in order of rank.
+	 *
+	 * @param from the first rank, starting at 1 for the lowest value, or for the highest value if descending
+	 * @param to the last rank, inclusive
+	 * @param descending whether to rank from the highest value
+	 * @return the indices of the ranks that exist
+	 */
+	synchronized List<String> getIndices(int from, int to, boolean descending) {
+		int size = size(root);
+		from = Math.max(from, 1);
+		to = Math.min(to, size);
+		if (from > to)
+			return new ArrayList<>(0);
+		List<String> indices = new ArrayList<>(to - from + 1);
+		if (descending) {
+			collect(root, 1, size - to + 1, size - from + 1, indices);
+			Collections.reverse(indices);
+		} else {
+			collect(root, 1, from, to, indices);
+		}
+		return indices;
+	}
+
+	/**
+	 * Adds the indices of the subtree with the given ranks to the list, in order.
+	 *
+	 * @param offset the rank of the lowest value of the subtree
+	 */
+	private static void collect(@Nullable Node node, int offset, int from, int to, List<String> indices) {
+		while (node != null) {
+			int rank = offset + size(node.left);
+			if (from < rank)
+				collect(node.left, offset, from, to, indices);
+			if (rank > to)
+				return;
+			if (rank >= from)
+				indices.add(node.index);
+			// continue with the right subtree without recursion
+			offset = rank + 1;
+			node = node.right;
+		}
+	}
+
+	private static Node insert(@Nullable Node node, Node inserted) {
+		if (node == null)
+			return inserted;
+		if (compare(inserted.value, inserted.index, node) < 0) {
+			node.left = insert(node.left, inserted);
+			if (node.left.priority > node.priority)
+				node = rotateRight(node);
+		} else {
+			node.right = insert(node.right, inserted);
+			if (node.right.priority > node.priority)
+				node = rotateLeft(node);
+		}
+		node.update();
+		return node;
+	}
+
+	@Nullable
+	private static Node remove(@Nullable Node node, Number value, String index) {
+		if (node == null)
+			return null;
+		int relation = compare(value, index, node);
+		if (relation < 0) {
+			node.left = remove(node.left, value, index);
+		} else if (relation > 0) {
+			node.right = remove(node.right, value, index);
+		} else {
+			return merge(node.left, node.right);
+		}
+		node.update();
+		return node;
+	}
+
+	/**
+	 * Merges two subtrees, where all values of the left subtree are lower than those of the right subtree.
+	 */
+	@Nullable
+	private static Node merge(@Nullable Node left, @Nullable Node right) {
+		if (left == null)
+			return right;
+		if (right == null)
+			return left;
+		if (left.priority > right.priority) {
+			left.right = merge(left.right, right);
+			left.update();
+			return left;
+		}
+		right.left = merge(left, right.left);
+		right.update();
+		return right;
+	}
+
+	private static Node rotateRight(Node node) {
+		Node left = node.left;
+		assert left != null;
+		node.left = left.right;
+		left.right = node;
+		node.update();
+		return left;
+	}
+
+	private static Node rotateLeft(Node node) {
+		Node right = node.right;
+		assert right != null;
+		node.right = right.left;
+		right.left = node;
+		node.update();
+		return right;
+	}
+
+	private static int size(@Nullable Node node) {
+		return node == null ? 0 : node.size;
+	}
+
+	private static int compare(Number value, String index, Node node) {
+		int relation = compareNumbers(value, node.value);
+		if (relation != 0)
+			return relation;
+		return VariablesMap.VARIABLE_NAME_COMPARATOR.compare(index, node.index);
+	}
+
+	/**
+	 * Compares two numbers, without losing precision if both are integers.
+	 */
+	static int compareNumbers(Number first, Number second) {
+		if (isInteger(first) && isInteger(second))
+			return Long.compare(first.longValue(), second.longValue());
+		return Double.compare(first.doubleValue(), second.doubleValue());
+	}
+
+	private static boolean isInteger(Number number) {
+		return number instanceof Long || number instanceof Integer || number instanceof Short || number instanceof Byte;
+	}
+
+	private static final class Node {
+
+		final Number value;
+		final String index;
+		final int priority = ThreadLocalRandom.current().nextInt();
+
+		@Nullable Node left, right;
+
+		/**
+		 * The amount of nodes in the subtree of this node, including this node.
+		 */
+		int size = 1;
+
+		Node(Number value, String index) {
+			this.value = value;
+			this.index = index;
+		}
+
+		void update() {
+			size = 1 + size(left) + size(right);
+		}
+
+	}
+
+}
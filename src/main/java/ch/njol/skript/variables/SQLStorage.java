@@ -4,6 +4,7 @@ import java.io.File;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.Callable;
 
@@ -374,14 +375,21 @@ public abstract class SQLStorage extends VariablesStorage {
 	@Nullable
 	PreparedStatement monitorCleanUpQuery;
 
+	/**
+	 * Prints errors if the given variable exceeds the limits of the database.
+	 */
+	private static void checkLimits(final String name, final @Nullable byte[] value) {
+		// REMIND get the actual maximum size from the database
+		if (name.length() > MAX_VARIABLE_NAME_LENGTH)
+			Skript.error("The name of the variable {" + name + "} is too long to be saved in a database (length: " + name.length() + ", maximum allowed: " + MAX_VARIABLE_NAME_LENGTH + ")! It will be truncated and won't bet available under the same name again when loaded.");
+		if (value != null && value.length > MAX_VALUE_SIZE)
+			Skript.error("The variable {" + name + "} cannot be saved in the database as its value's size (" + value.length + ") exceeds the maximum allowed size of " + MAX_VALUE_SIZE + "! An attempt to save the variable will be made nonetheless.");
+	}
+
 	@Override
 	protected boolean save(final String name, final @Nullable String type, final @Nullable byte[] value) {
 		synchronized (db) {
-			// REMIND get the actual maximum size from the database
-			if (name.length() > MAX_VARIABLE_NAME_LENGTH)
-				Skript.error("The name of the variable {" + name + "} is too long to be saved in a database (length: " + name.length() + ", maximum allowed: " + MAX_VARIABLE_NAME_LENGTH + ")! It will be truncated and won't bet available under the same name again when loaded.");
-			if (value != null && value.length > MAX_VALUE_SIZE)
-				Skript.error("The variable {" + name + "} cannot be saved in the database as its value's size (" + value.length + ") exceeds the maximum allowed size of " + MAX_VALUE_SIZE + "! An attempt to save the variable will be made nonetheless.");
+			checkLimits(name, value);
 			try {
 				if (type == null) {
 					assert value == null;
@@ -407,10 +415,55 @@ public abstract class SQLStorage extends VariablesStorage {
 		return true;
 	}
 
+	/**
+	 * Saves the whole batch using JDBC batches, and commits it as a single transaction.
+	 */
+	@Override
+	protected boolean saveBatch(final List<SerializedVariable> batch) {
+		synchronized (db) {
+			final Database db = this.db.get();
+			final PreparedStatement writeQuery = this.writeQuery;
+			final PreparedStatement deleteQuery = this.deleteQuery;
+			assert writeQuery != null && deleteQuery != null;
+			try {
+				// the batch contains each variable at most once, so the order of writes and deletes does not matter
+				boolean writes = false, deletes = false;
+				for (final SerializedVariable variable : batch) {
+					final SerializedVariable.Value value = variable.value;
+					checkLimits(variable.name, value == null ? null : value.data);
+					if (value == null) {
+						deleteQuery.setString(1, variable.name);
+						deleteQuery.addBatch();
+						deletes = true;
+					} else {
+						int i = 1;
+						writeQuery.setString(i++, variable.name);
+						writeQuery.setString(i++, value.type);
+						writeQuery.setBytes(i++, value.data); // SQLite desn't support setBlob
+						writeQuery.setString(i++, guid);
+						writeQuery.addBatch();
+						writes = true;
+					}
+				}
+				if (deletes)
+					deleteQuery.executeBatch();
+				if (writes)
+					writeQuery.executeBatch();
+				if (db != null)
+					db.getConnection().commit();
+			} catch (final SQLException e) {
+				sqlException(e);
+				return false;
+			}
+		}
+		return true;
+	}
+
 	@Override
 	public void close() {
+		// Must not hold the database lock here, as the write thread needs it to save the remaining changes
+		super.close();
 		synchronized (db) {
-			super.close();
 			final Database db = this.db.get();
 			if (db != null) {
 				try {
@@ -24,6 +24,7 @@ import com.google.common.collect.Multimap;
 import org.bukkit.Bukkit;
 import org.bukkit.configuration.serialization.ConfigurationSerializable;
 import org.bukkit.configuration.serialization.ConfigurationSerialization;
+import org.bukkit.entity.Player;
 import org.bukkit.event.Event;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -33,6 +34,7 @@ import org.skriptlang.skript.lang.converter.Converters;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
@@ -42,16 +44,12 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.NoSuchElementException;
 import java.util.Optional;
-import java.util.Queue;
-import java.util.TreeMap;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.regex.Pattern;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Handles all things related to variables.
@@ -89,6 +87,7 @@ public class Variables {
 		registerStorage(FlatFileStorage.class, "csv", "file", "flatfile");
 		registerStorage(SQLiteStorage.class, "sqlite");
 		registerStorage(MySQLStorage.class, "mysql");
+		registerStorage(BinaryStorage.class, "binary");
 		yggdrasil.registerSingleClass(Kleenean.class, "Kleenean");
 		// Register ConfigurationSerializable, Bukkit's serialization system
 		yggdrasil.registerClassResolver(new ConfigurationSerializer<ConfigurationSerializable>() {
@@ -301,32 +300,49 @@ public class Variables {
 		return true;
 	}
 
-	/**
-	 * A pattern to split variable names using {@link Variable#SEPARATOR}.
-	 */
-	private static final Pattern VARIABLE_NAME_SPLIT_PATTERN = Pattern.compile(Pattern.quote(Variable.SEPARATOR));
-
 	/**
 	 * Splits the given variable name into its parts,
 	 * separated by {@link Variable#SEPARATOR}.
+	 * <p>
+	 * Like {@link String#split(String)}, trailing empty parts are removed.
 	 *
 	 * @param name the variable name.
 	 * @return the parts.
 	 */
 	public static String[] splitVariableName(String name) {
-		return VARIABLE_NAME_SPLIT_PATTERN.split(name);
+		int separator = name.indexOf(Variable.SEPARATOR);
+		if (separator == -1)
+			return new String[] {name};
+
+		List<String> parts = new ArrayList<>(4);
+		int start = 0;
+		do {
+			parts.add(name.substring(start, separator));
+			start = separator + Variable.SEPARATOR.length();
+			separator = name.indexOf(Variable.SEPARATOR, start);
+		} while (separator != -1);
+		parts.add(name.substring(start));
+
+		int size = parts.size();
+		while (size > 0 && parts.get(size - 1).isEmpty())
+			size--;
+		return parts.subList(0, size).toArray(new String[0]);
 	}
 
 	/**
-	 * A lock for reading and writing variables.
+	 * A lock for writing global variables.
+	 * <p>
+	 * Reading global variables does not require any locking, see {@link VariablesMap#concurrent()}.
+	 * This lock only ensures that changes are applied to {@link #variables}
+	 * and queued for saving in the same order, and is only held for the duration of a single change.
 	 */
-	static final ReadWriteLock variablesLock = new ReentrantReadWriteLock(true);
+	static final Lock variablesLock = new ReentrantLock();
 
 	/**
-	 * The {@link VariablesMap} storing global variables,
-	 * must be locked with {@link #variablesLock}.
+	 * The {@link VariablesMap} storing global variables.
+	 * May be read from any thread, but must be modified while holding {@link #variablesLock}.
 	 */
-	static final VariablesMap variables = new VariablesMap();
+	static final VariablesMap variables = VariablesMap.concurrent();
 
 	/**
 	 * A map storing all local variables,
@@ -335,35 +351,27 @@ public class Variables {
 	private static final Map<Event, VariablesMap> localVariables = new ConcurrentHashMap<>();
 
 	/**
-	 * Gets the {@link TreeMap} of all global variables.
+	 * Gets the tree of all global variables.
 	 * <p>
-	 * Remember to lock with {@link #getReadLock()} and to not make any changes!
+	 * It may be iterated from any thread without locking, but do not make any changes!
+	 *
+	 * @see ConcurrentVariablesNode
 	 */
-	static TreeMap<String, Object> getVariables() {
-		return variables.treeMap;
+	static Map<String, Object> getVariables() {
+		Map<String, Object> tree = variables.treeMap;
+		assert tree != null; // always present in concurrent maps
+		return tree;
 	}
 
 	/**
 	 * Gets the {@link Map} of all global variables.
 	 * <p>
 	 * This map cannot be modified.
-	 * Remember to lock with {@link #getReadLock()}!
 	 */
 	static Map<String, Object> getVariablesHashMap() {
 		return Collections.unmodifiableMap(variables.hashMap);
 	}
 
-	/**
-	 * Gets the lock for reading variables.
-	 *
-	 * @return the lock.
-	 *
-	 * @see #variablesLock
-	 */
-	static Lock getReadLock() {
-		return variablesLock.readLock();
-	}
-
 	/**
 	 * Removes local variables associated with given event and returns them,
 	 * if they exist.
@@ -399,6 +407,9 @@ public class Variables {
 	/**
 	 * Creates a copy of the {@link VariablesMap} for local variables
 	 * in an event.
+	 * <p>
+	 * The copy is cheap, as the variables are only actually copied
+	 * once either the original or the copy is modified.
 	 *
 	 * @param event the event to copy local variables from.
 	 * @return the copy.
@@ -421,8 +432,8 @@ public class Variables {
 	public static void withLocalVariables(Event provider, Event user, @NotNull Runnable action) {
 		Variables.setLocalVariables(user, Variables.copyLocalVariables(provider));
 		action.run();
-		Variables.setLocalVariables(provider, Variables.copyLocalVariables(user));
-		Variables.removeLocals(user);
+		// The user's variables are removed anyway, so they can be moved back instead of copied
+		Variables.setLocalVariables(provider, Variables.removeLocals(user));
 	}
 
 	/**
@@ -457,32 +468,44 @@ public class Variables {
 
 			return map.getVariable(n);
 		} else {
-			// Prevent race conditions from returning variables with incorrect values
-			if (!changeQueue.isEmpty()) {
-				// Gets the last VariableChange made
-				VariableChange variableChange = changeQueue.stream()
-						.filter(change -> change.name.equals(n))
-						.reduce((first, second) -> second)
-								// Gets last value, as iteration is from head to tail,
-								//  and adding occurs at the tail (and we want the most recently added)
-						.orElse(null);
-
-				if (variableChange != null) {
-					return variableChange.value;
-				}
-			}
+			return variables.getVariable(n);
+		}
+	}
 
-			try {
-				variablesLock.readLock().lock();
-				return variables.getVariable(n);
-			} finally {
-				variablesLock.readLock().unlock();
-			}
+	/**
+	 * Returns the internal value of the requested list variable, given the parts of its name.
+	 * <p>
+	 * This is the same as {@link #getVariable(String, Event, boolean)} for the parts joined with {@link Variable#SEPARATOR},
+	 * but the parts are not lower-cased here, so they must already be if {@link #caseInsensitiveVariables} is enabled,
+	 * e.g. by {@link ch.njol.skript.lang.VariableString#toKeyPath(Event, boolean)}.
+	 * <p>
+	 * <b>Do not modify the returned value!</b>
+	 *
+	 * @param path the parts of the list variable's name, the last of which is {@code *}.
+	 * @param event if {@code local} is {@code true}, this is the event
+	 *                 the local variable resides in.
+	 * @param local if this variable is a local or global variable.
+	 * @return a {@code Map<String, Object>} for the list variable,
+	 * or {@code null} if the variable is not set.
+	 */
+	@Nullable
+	public static Object getList(String[] path, @Nullable Event event, boolean local) {
+		if (local) {
+			VariablesMap map = localVariables.get(event);
+			if (map == null)
+				return null;
+
+			return map.getList(path);
+		} else {
+			return variables.getList(path);
 		}
 	}
 
 	/**
 	 * Returns an iterator over the values of this list variable.
+	 * <p>
+	 * The iterator walks a snapshot of the elements of the list, taken when this method is called,
+	 * so the list may be modified while iterating, but changes are not reflected by the iterator.
 	 *
 	 * @param name the variable's name. This must be the name of a list variable, ie. it must end in *.
 	 * @param event if {@code local} is {@code true}, this is the event
@@ -498,50 +521,74 @@ public class Variables {
 
 		if (val == null)
 			return new EmptyIterator<>();
-		assert val instanceof TreeMap;
-		// temporary list to prevent CMEs
-		@SuppressWarnings("unchecked")
-		Iterator<String> keys = new ArrayList<>(((Map<String, Object>) val).keySet()).iterator();
+		assert val instanceof Map;
+		//noinspection unchecked
+		ListSnapshot snapshot = new ListSnapshot((Map<String, Object>) val);
 		return new Iterator<>() {
-			@Nullable
-			private String key;
-			@Nullable
-			private Object next = null;
+			private int index;
+			private @Nullable String key;
 
 			@Override
 			public boolean hasNext() {
-				if (next != null)
-					return true;
-				while (keys.hasNext()) {
-					key = keys.next();
-					if (key != null) {
-						next = Variable.convertIfOldPlayer(subName + key, local, event, Variables.getVariable(subName + key, event, local));
-						if (next != null && !(next instanceof TreeMap))
-							return true;
-					}
-				}
-				next = null;
-				return false;
+				return index < snapshot.size;
 			}
 
 			@Override
 			public Pair<String, Object> next() {
 				if (!hasNext())
 					throw new NoSuchElementException();
-				Pair<String, Object> n = new Pair<>(key, next);
-				next = null;
-				return n;
+				String key = this.key = snapshot.keys[index];
+				Object value = snapshot.values[index++];
+				if (value instanceof Player) // only build the name of the element if it may need to be updated
+					value = Variable.convertIfOldPlayer(subName + key, local, event, value);
+				return new Pair<>(key, value);
 			}
 
 			@Override
 			public void remove() {
 				if (key == null)
 					throw new IllegalStateException();
-				Variables.deleteVariable(key, event, local);
+				Variables.deleteVariable(subName + key, event, local);
+				key = null;
 			}
 		};
 	}
 
+	/**
+	 * The indices and values of the elements of a list variable at one point in time,
+	 * copied in a single pass over the list instead of looking up each element by its name.
+	 * Elements that only have sub-elements are skipped, like {@link #getVariable(String, Event, boolean)} would.
+	 */
+	private static final class ListSnapshot {
+
+		private String[] keys;
+		private Object[] values;
+		private int size;
+
+		ListSnapshot(Map<String, Object> list) {
+			int capacity = list.size();
+			keys = new String[capacity];
+			values = new Object[capacity];
+			for (Entry<String, Object> entry : list.entrySet()) {
+				String key = entry.getKey();
+				if (key == null)
+					continue;
+				Object value = entry.getValue();
+				if (value instanceof Map<?, ?> node)
+					value = node.get(null);
+				if (value == null)
+					continue;
+				if (size == keys.length) { // a global list may grow while it is copied
+					keys = Arrays.copyOf(keys, size * 2 + 1);
+					values = Arrays.copyOf(values, size * 2 + 1);
+				}
+				keys[size] = key;
+				values[size++] = value;
+			}
+		}
+
+	}
+
 	/**
 	 * Deletes a variable.
 	 *
@@ -602,84 +649,15 @@ public class Variables {
 	 * @param value the value, or {@code null} to delete the variable.
 	 */
 	static void setVariable(String name, @Nullable Object value) {
-		boolean gotLock = variablesLock.writeLock().tryLock();
-		if (gotLock) {
-			try {
-				// Set the variable
-				variables.setVariable(name, value);
-				// ..., save the variable change
-				saveVariableChange(name, value);
-				// ..., and process all previously queued changes
-				processChangeQueue();
-			} finally {
-				variablesLock.writeLock().unlock();
-			}
-		} else {
-			// Couldn't acquire variable write lock, queue the change (blocking here is a bad idea)
-			queueVariableChange(name, value);
-		}
-	}
-
-	/**
-	 * Changes to variables that have not yet been performed.
-	 */
-	static final Queue<VariableChange> changeQueue = new ConcurrentLinkedQueue<>();
-
-	/**
-	 * A variable change name-value pair.
-	 */
-	private static class VariableChange {
-
-		/**
-		 * The name of the changed variable.
-		 */
-		public final String name;
-
-		/**
-		 * The (possibly {@code null}) value of the variable change.
-		 */
-		@Nullable
-		public final Object value;
-
-		/**
-		 * Creates a new {@link VariableChange} with the given name and value.
-		 *
-		 * @param name the variable name.
-		 * @param value the new variable value.
-		 */
-		public VariableChange(String name, @Nullable Object value) {
-			this.name = name;
-			this.value = value;
-		}
-
-	}
-
-	/**
-	 * Queues a variable change. Only to be called when direct write is not
-	 * possible, but thread cannot be allowed to block.
-	 *
-	 * @param name the variable name.
-	 * @param value the new value.
-	 */
-	private static void queueVariableChange(String name, @Nullable Object value) {
-		changeQueue.add(new VariableChange(name, value));
-	}
-
-	/**
-	 * Processes all entries in variable change queue.
-	 * <p>
-	 * Note that caller must acquire write lock before calling this,
-	 * then release it.
-	 */
-	static void processChangeQueue() {
-		while (true) { // Run as long as we still have changes
-			VariableChange change = changeQueue.poll();
-			if (change == null)
-				break;
-
-			// Set and save variable
-			variables.setVariable(change.name, change.value);
-			saveVariableChange(change.name, change.value);
+		// The lock is only ever held for a single change, so waiting for it is cheap
+		variablesLock.lock();
+		try {
+			// Set the variable
+			variables.setVariable(name, value);
+			// ..., and save the variable change
+			saveVariableChange(name, value);
+		} finally {
+			variablesLock.unlock();
 		}
 	}
 
@@ -731,47 +709,16 @@ public class Variables {
 		synchronized (TEMP_VARIABLES) {
 			Map<String, NonNullPair<Object, VariablesStorage>> tvs = TEMP_VARIABLES.get();
 			if (tvs != null) {
-				NonNullPair<Object, VariablesStorage> existingVariable = tvs.get(name);
-
-				// Check for conflicts with other storages
-				conflict: if (existingVariable != null) {
-					VariablesStorage existingVariableStorage = existingVariable.getSecond();
-
-					if (existingVariableStorage == source) {
-						// No conflict if from the same storage
-						break conflict;
-					}
-
-					// Variable already loaded from another database, conflict
-					loadConflicts++;
-
-					// Warn if needed
-					if (loadConflicts <= MAX_CONFLICT_WARNINGS) {
-						Skript.warning("The variable {" + name + "} was loaded twice from different databases (" +
-							existingVariableStorage.getUserConfigurationName() + " and " + source.getUserConfigurationName() +
-							"), only the one from " + source.getUserConfigurationName() + " will be kept.");
-					} else if (loadConflicts == MAX_CONFLICT_WARNINGS + 1) {
-						Skript.warning("[!] More than " + MAX_CONFLICT_WARNINGS +
-							" variables were loaded more than once from different databases, " +
-							"no more warnings will be printed.");
-					}
-
-					// Remove the value from the existing variable's storage
-					existingVariableStorage.save(name, null, null);
-				}
-
-				// Add to the loaded variables
-				tvs.put(name, new NonNullPair<>(value, source));
-
+				loadTemporaryVariable(tvs, name, value, source);
 				return false;
 			}
 		}
 
-		variablesLock.writeLock().lock();
+		variablesLock.lock();
 		try {
 			variables.setVariable(name, value);
 		} finally {
-			variablesLock.writeLock().unlock();
+			variablesLock.unlock();
 		}
 
 		// Move the variable to the right storage
@@ -802,6 +749,79 @@ public class Variables {
 		return false;
 	}
 
+	/**
+	 * Calls {@link #variableLoaded(String, Object, VariablesStorage)} for each of the given variables,
+	 * but only synchronises once while storages are loading.
+	 * <p>
+	 * Must be called on Bukkit's main thread.
+	 *
+	 * @param loaded the names and values of the variables, in the order they were loaded.
+	 * @param source the storage the variables came from.
+	 */
+	static void variablesLoaded(List<? extends Entry<String, Object>> loaded, VariablesStorage source) {
+		assert Bukkit.isPrimaryThread(); // required by serialisation
+
+		synchronized (TEMP_VARIABLES) {
+			Map<String, NonNullPair<Object, VariablesStorage>> tvs = TEMP_VARIABLES.get();
+			if (tvs != null) {
+				for (Entry<String, Object> variable : loaded) {
+					Object value = variable.getValue();
+					if (value != null)
+						loadTemporaryVariable(tvs, variable.getKey(), value, source);
+				}
+				return;
+			}
+		}
+
+		for (Entry<String, Object> variable : loaded)
+			variableLoaded(variable.getKey(), variable.getValue(), source);
+	}
+
+	/**
+	 * Adds a variable loaded while storages are loading to the temporary variables,
+	 * resolving conflicts with variables loaded from other storages.
+	 * Must be called while synchronized on {@link #TEMP_VARIABLES}.
+	 *
+	 * @param tvs the temporary variables.
+	 * @param name the variable name.
+	 * @param value the variable value.
+	 * @param source the storage the variable came from.
+	 */
+	private static void loadTemporaryVariable(Map<String, NonNullPair<Object, VariablesStorage>> tvs,
+											  String name, Object value, VariablesStorage source) {
+		NonNullPair<Object, VariablesStorage> existingVariable = tvs.get(name);
+
+		// Check for conflicts with other storages
+		conflict: if (existingVariable != null) {
+			VariablesStorage existingVariableStorage = existingVariable.getSecond();
+
+			if (existingVariableStorage == source) {
+				// No conflict if from the same storage
+				break conflict;
+			}
+
+			// Variable already loaded from another database, conflict
+			loadConflicts++;
+
+			// Warn if needed
+			if (loadConflicts <= MAX_CONFLICT_WARNINGS) {
+				Skript.warning("The variable {" + name + "} was loaded twice from different databases (" +
+					existingVariableStorage.getUserConfigurationName() + " and " + source.getUserConfigurationName() +
+					"), only the one from " + source.getUserConfigurationName() + " will be kept.");
+			} else if (loadConflicts == MAX_CONFLICT_WARNINGS + 1) {
+				Skript.warning("[!] More than " + MAX_CONFLICT_WARNINGS +
+					" variables were loaded more than once from different databases, " +
+					"no more warnings will be printed.");
+			}
+
+			// Remove the value from the existing variable's storage
+			existingVariableStorage.save(name, null, null);
+		}
+
+		// Add to the loaded variables
+		tvs.put(name, new NonNullPair<>(value, source));
+	}
+
 	/**
 	 * Stores loaded variables into the variables map
 	 * and the appropriate databases.
@@ -821,7 +841,7 @@ public class Variables {
 			TEMP_VARIABLES.set(null);
 			assert tvs != null;
 
-			variablesLock.writeLock().lock();
+			variablesLock.lock();
 			try {
 				// Calculate the amount of variables that don't have a storage
 				int unstoredVariables = 0;
@@ -837,7 +857,7 @@ public class Variables {
 
 				return unstoredVariables;
 			} finally {
-				variablesLock.writeLock().unlock();
+				variablesLock.unlock();
 			}
 		}
 	}
@@ -889,7 +909,9 @@ public class Variables {
 	private static void saveVariableChange(String name, @Nullable Object value) {
 		if (name.startsWith(Variable.EPHEMERAL_VARIABLE_TOKEN))
 			return;
-		saveQueue.add(serialize(name, value));
+		SerializedVariable variable = serialize(name, value);
+		unsavedChanges.incrementAndGet();
+		saveQueue.add(variable);
 	}
 
 	/**
@@ -898,6 +920,17 @@ public class Variables {
 	 */
 	static final BlockingQueue<SerializedVariable> saveQueue = new LinkedBlockingQueue<>();
 
+	/**
+	 * The amount of variable changes that have been added to the {@link #saveQueue},
+	 * but have not been passed on to their storage by the {@link #saveThread} yet.
+	 */
+	private static final AtomicInteger unsavedChanges = new AtomicInteger();
+
+	/**
+	 * The maximum amount of variable changes the {@link #saveThread} takes from the {@link #saveQueue} at once.
+	 */
+	private static final int MAX_SAVE_BATCH_SIZE = 1000;
+
 	/**
 	 * Whether the {@link #saveThread} should be stopped.
 	 */
@@ -907,39 +940,41 @@ public class Variables {
 	 * The thread that saves variables, i.e. stores in the appropriate storage.
 	 */
 	private static final Thread saveThread = Skript.newThread(() -> {
+		List<SerializedVariable> changes = new ArrayList<>();
 		while (!closed) {
 			try {
-				// Save one variable change
-				SerializedVariable variable = saveQueue.take();
+				// Wait for a variable change, then take all others that are already queued
+				changes.add(saveQueue.take());
+				saveQueue.drainTo(changes, MAX_SAVE_BATCH_SIZE - 1);
 
-				for (VariablesStorage variablesStorage : STORAGES) {
-					if (variablesStorage.accept(variable.name)) {
-						variablesStorage.save(variable);
+				// Only the last change of each variable needs to be passed on
+				for (SerializedVariable variable : VariablesStorage.coalesce(changes)) {
+					for (VariablesStorage variablesStorage : STORAGES) {
+						if (variablesStorage.accept(variable.name)) {
+							variablesStorage.save(variable);
 
-						break;
+							break;
+						}
 					}
 				}
-			} catch (InterruptedException ignored) {}
+			} catch (InterruptedException ignored) {
+			} finally {
+				unsavedChanges.addAndGet(-changes.size());
+				changes.clear();
+			}
 		}
 	}, "Skript variable save thread");
 
 	/**
 	 * Closes the variable systems:
 	 * <ul>
-	 *     <li>Process all changes left in the {@link #changeQueue}.</li>
+	 *     <li>Waits for all changes left in the {@link #saveQueue} to be passed on to their storage.</li>
 	 *     <li>Stops the {@link #saveThread}.</li>
 	 * </ul>
 	 */
 	public static void close() {
-		try { // Ensure that all changes are to save soon
-			variablesLock.writeLock().lock();
-			processChangeQueue();
-		} finally {
-			variablesLock.writeLock().unlock();
-		}
-
-		// First, make sure all variables are saved
-		while (saveQueue.size() > 0) {
+		// First, make sure all variables are saved, including those taken from the queue but not passed on yet
+		while (unsavedChanges.get() > 0) {
 			try {
 				Thread.sleep(10);
 			} catch (InterruptedException ignored) {}
@@ -956,12 +991,7 @@ public class Variables {
 	 * @return the amount of variables.
 	 */
 	public static int numVariables() {
-		try {
-			variablesLock.readLock().lock();
-			return variables.hashMap.size();
-		} finally {
-			variablesLock.readLock().unlock();
-		}
+		return variables.hashMap.size();
 	}
 
 }
@@ -9,6 +9,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A map for storing variables in a sorted and efficient manner.
@@ -123,11 +124,72 @@ final class VariablesMap {
 	/**
 	 * The map that stores all non-list variables.
 	 */
-	final HashMap<String, Object> hashMap = new HashMap<>();
+	Map<String, Object> hashMap;
 	/**
 	 * The tree of variables, branched by the list structure of the variables.
+	 * <p>
+	 * If this map is not {@link #concurrent()}, variables whose name doesn't contain {@link Variable#SEPARATOR}
+	 * are only stored in the {@link #hashMap}, as they can't be part of a list variable,
+	 * and the tree is {@code null} until the first such variable is set.
+	 */
+	@Nullable Map<String, Object> treeMap;
+
+	/**
+	 * Whether this map is safe to read from any thread while it is being modified.
+	 * @see #concurrent()
+	 */
+	private final boolean concurrent;
+
+	/**
+	 * Whether the {@link #hashMap} and {@link #treeMap} are shared with a {@link #copy() copy} of this map,
+	 * and thus must be copied before this map is modified.
+	 */
+	private boolean shared;
+
+	/**
+	 * Creates a new map that may only be accessed by one thread at a time.
 	 */
-	final TreeMap<String, Object> treeMap = new TreeMap<>();
+	VariablesMap() {
+		this(false);
+	}
+
+	private VariablesMap(boolean concurrent) {
+		this.concurrent = concurrent;
+		if (concurrent) {
+			hashMap = new ConcurrentHashMap<>();
+			treeMap = new ConcurrentVariablesNode();
+		} else {
+			hashMap = new HashMap<>();
+			treeMap = null;
+		}
+	}
+
+	/**
+	 * Creates a new map that can be read (and iterated) from any thread without locking,
+	 * even while it is being modified.
+	 * List variables returned by {@link #getVariable(String)} are {@link ConcurrentVariablesNode}s.
+	 * <p>
+	 * Modifications must still be performed by one thread at a time.
+	 *
+	 * @return the new map.
+	 */
+	static VariablesMap concurrent() {
+		return new VariablesMap(true);
+	}
+
+	/**
+	 * Creates a new, empty branch for the variable tree of this map.
+	 */
+	private Map<String, Object> newNode() {
+		return concurrent ? new ConcurrentVariablesNode() : new TreeMap<>(VARIABLE_NAME_COMPARATOR);
+	}
+
+	/**
+	 * Checks whether a value from the variable tree of this map is a branch, rather than a variable value.
+	 */
+	private boolean isNode(@Nullable Object value) {
+		return concurrent ? value instanceof ConcurrentVariablesNode : value instanceof TreeMap;
+	}
 
 	/**
 	 * Returns the internal value of the requested variable.
@@ -139,7 +201,6 @@ final class VariablesMap {
 	 * {@code Map<String, Object>} for a list variable,
 	 * or {@code null} if the variable is not set.
 	 */
-	@SuppressWarnings("unchecked")
 	@Nullable
 	Object getVariable(String name) {
 		if (!name.endsWith("*")) {
@@ -147,35 +208,51 @@ final class VariablesMap {
 			return hashMap.get(name);
 		} else {
 			// List variable, search the tree branches
-			String[] split = Variables.splitVariableName(name);
-			Map<String, Object> parent = treeMap;
-
-			// Iterate over the parts of the variable name
-			for (int i = 0; i < split.length; i++) {
-				String n = split[i];
-				if (n.equals("*")) {
-					// End of variable name, return map
-					assert i == split.length - 1;
-					return parent;
-				}
+			return getList(Variables.splitVariableName(name));
+		}
+	}
 
-				// Check if the current (sub-)tree has the expected child node
-				Object childNode = parent.get(n);
-				if (childNode == null)
-					return null;
+	/**
+	 * Returns the internal value of the requested list variable.
+	 * <p>
+	 * <b>Do not modify the returned value!</b>
+	 *
+	 * @param split the parts of the name of the list variable, the last of which is {@code *}.
+	 * @return a {@code Map<String, Object>} for the list variable,
+	 * or {@code null} if the variable is not set.
+	 */
+	@SuppressWarnings("unchecked")
+	@Nullable
+	Object getList(String[] split) {
+		Map<String, Object> parent = treeMap;
+		if (parent == null)
+			return null;
 
-				// Continue the iteration if the child node is a tree itself
-				if (childNode instanceof Map) {
-					// Continue iterating with the subtree
-					parent = (Map<String, Object>) childNode;
-					assert i != split.length - 1;
-				} else {
-					// ..., otherwise the list variable doesn't exist here
-					return null;
-				}
+		// Iterate over the parts of the variable name
+		for (int i = 0; i < split.length; i++) {
+			String n = split[i];
+			if (n.equals("*")) {
+				// End of variable name, return map
+				assert i == split.length - 1;
+				return parent;
+			}
+
+			// Check if the current (sub-)tree has the expected child node
+			Object childNode = parent.get(n);
+			if (childNode == null)
+				return null;
+
+			// Continue the iteration if the child node is a tree itself
+			if (isNode(childNode)) {
+				// Continue iterating with the subtree
+				parent = (Map<String, Object>) childNode;
+				assert i != split.length - 1;
+			} else {
+				// ..., otherwise the list variable doesn't exist here
+				return null;
 			}
-			return null;
 		}
+		return null;
 	}
 
 	/**
@@ -189,6 +266,9 @@ final class VariablesMap {
 	 */
 	@SuppressWarnings("unchecked")
 	void setVariable(String name, @Nullable Object value) {
+		if (shared)
+			unshare();
+
 		// First update the hash map easily
 		if (!name.endsWith("*")) {
 			if (value == null)
@@ -197,9 +277,22 @@ final class VariablesMap {
 				hashMap.put(name, value);
 		}
 
+		Map<String, Object> parent = treeMap;
+		if (!concurrent) {
+			// Variables that can't be part of a list are only needed in the tree as the value of a list,
+			//  e.g. {_x} if {_x::*} exists, in which case it's stored in the node of the list
+			if (!name.contains(Variable.SEPARATOR) && (parent == null || !parent.containsKey(name)))
+				return;
+			if (parent == null) {
+				if (value == null)
+					return;
+				parent = treeMap = new TreeMap<>();
+			}
+		}
+		assert parent != null;
+
 		// Then update the tree map by going down the branches
 		String[] split = Variables.splitVariableName(name);
-		TreeMap<String, Object> parent = treeMap;
 
 		// Iterate over the parts of the variable name
 		for (int i = 0; i < split.length; i++) {
@@ -216,17 +309,23 @@ final class VariablesMap {
 					break;
 				} else if (value != null) {
 					// Create child node, add it to parent and continue iteration
-					childNode = new TreeMap<>(VARIABLE_NAME_COMPARATOR);
+					Map<String, Object> newChildNodeMap = newNode();
+					if (i == 0 && !concurrent) {
+						// The variable with the name of the list isn't in the tree yet, see above
+						Object listValue = hashMap.get(childNodeName);
+						if (listValue != null)
+							newChildNodeMap.put(null, listValue);
+					}
 
-					parent.put(childNodeName, childNode);
-					parent = (TreeMap<String, Object>) childNode;
+					parent.put(childNodeName, newChildNodeMap);
+					parent = newChildNodeMap;
 				} else {
 					// Want to set variable to null, bu variable is already null
 					break;
 				}
-			} else if (childNode instanceof TreeMap) {
+			} else if (isNode(childNode)) {
 				// Child node found
-				TreeMap<String, Object> childNodeMap = ((TreeMap<String, Object>) childNode);
+				Map<String, Object> childNodeMap = ((Map<String, Object>) childNode);
 
 				if (i == split.length - 1) {
 					// End of variable name reached, adjust child node accordingly
@@ -269,7 +368,7 @@ final class VariablesMap {
 					break;
 				} else if (value != null) {
 					// Need to continue iteration, create new child node and put old value in it
-					TreeMap<String, Object> newChildNodeMap = new TreeMap<>(VARIABLE_NAME_COMPARATOR);
+					Map<String, Object> newChildNodeMap = newNode();
 					newChildNodeMap.put(null, childNode);
 
 					// Add new child node to parent
@@ -290,7 +389,7 @@ final class VariablesMap {
 	 * @param current the map of the list variable.
 	 */
 	@SuppressWarnings("unchecked")
-	void deleteFromHashMap(String parent, TreeMap<String, Object> current) {
+	void deleteFromHashMap(String parent, Map<String, Object> current) {
 		for (Entry<String, Object> e : current.entrySet()) {
 			if (e.getKey() == null)
 				continue;
@@ -301,8 +400,8 @@ final class VariablesMap {
 
 			// Recurse if needed
 			Object val = e.getValue();
-			if (val instanceof TreeMap) {
-				deleteFromHashMap(childName, (TreeMap<String, Object>) val);
+			if (isNode(val)) {
+				deleteFromHashMap(childName, (Map<String, Object>) val);
 			}
 		}
 	}
@@ -313,42 +412,60 @@ final class VariablesMap {
 	 * @return the copy.
 	 */
 	public VariablesMap copy() {
-		VariablesMap copy = new VariablesMap();
+		VariablesMap copy = new VariablesMap(concurrent);
+
+		if (!concurrent) {
+			// Share the maps until either map is modified
+			copy.hashMap = hashMap;
+			copy.treeMap = treeMap;
+			copy.shared = shared = true;
+			return copy;
+		}
 
+		assert treeMap != null && copy.treeMap != null;
 		copy.hashMap.putAll(hashMap);
-
-		TreeMap<String, Object> treeMapCopy = copyTreeMap(treeMap);
-		copy.treeMap.putAll(treeMapCopy);
+		copyTree(treeMap, copy.treeMap);
 
 		return copy;
 	}
 
 	/**
-	 * Makes a deep copy of the given {@link TreeMap}.
+	 * Replaces the maps shared with a {@link #copy()} with copies of them.
+	 */
+	private void unshare() {
+		hashMap = new HashMap<>(hashMap);
+		if (treeMap != null) {
+			Map<String, Object> treeCopy = new TreeMap<>();
+			copyTree(treeMap, treeCopy);
+			treeMap = treeCopy;
+		}
+		shared = false;
+	}
+
+	/**
+	 * Makes a deep copy of the given branch of the variable tree into another.
 	 * <p>
 	 * The 'deep copy' means that each subtree of the given tree is copied
 	 * as well.
 	 *
-	 * @param original the original tree map.
-	 * @return the copy.
+	 * @param original the original branch.
+	 * @param copy the (empty) branch to copy into.
 	 */
 	@SuppressWarnings("unchecked")
-	private static TreeMap<String, Object> copyTreeMap(TreeMap<String, Object> original) {
-		TreeMap<String, Object> copy = new TreeMap<>(VARIABLE_NAME_COMPARATOR);
-
+	private void copyTree(Map<String, Object> original, Map<String, Object> copy) {
 		for (Entry<String, Object> child : original.entrySet()) {
 			String key = child.getKey();
 			Object value = child.getValue();
 
-			// Copy by recursion if the child is a TreeMap
-			if (value instanceof TreeMap) {
-				value = copyTreeMap((TreeMap<String, Object>) value);
+			// Copy by recursion if the child is a branch
+			if (isNode(value)) {
+				Map<String, Object> childCopy = newNode();
+				copyTree((Map<String, Object>) value, childCopy);
+				value = childCopy;
 			}
 
 			copy.put(key, value);
 		}
-
-		return copy;
 	}
 
 }
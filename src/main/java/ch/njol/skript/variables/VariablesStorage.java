@@ -4,8 +4,14 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
@@ -14,6 +20,7 @@ import org.jetbrains.annotations.Nullable;
 import ch.njol.skript.Skript;
 import ch.njol.skript.config.SectionNode;
 import ch.njol.skript.lang.ParseContext;
+import ch.njol.skript.lang.Variable;
 import ch.njol.skript.log.ParseLogHandler;
 import ch.njol.skript.log.SkriptLogger;
 import ch.njol.skript.registrations.Classes;
@@ -45,7 +52,44 @@ public abstract class VariablesStorage implements Closeable {
 	 */
 	private static final int FIRST_WARNING = 300;
 
-	final LinkedBlockingQueue<SerializedVariable> changesQueue = new LinkedBlockingQueue<>(QUEUE_SIZE);
+	/**
+	 * The maximum amount of variable changes that are saved together in one {@link #saveBatch(List) batch}.
+	 */
+	private static final int MAX_BATCH_SIZE = 500;
+
+	/**
+	 * The maximum time in milliseconds to wait for more variable changes
+	 * after the first change of a batch has been received.
+	 */
+	private static final long MAX_BATCH_DELAY = 50;
+
+	final LinkedBlockingQueue<QueuedChange> changesQueue = new LinkedBlockingQueue<>(QUEUE_SIZE);
+
+	/**
+	 * A variable change in the {@link #changesQueue}.
+	 *
+	 * @param variable the changed variable.
+	 * @param sequence the amount of changes that were queued before this one.
+	 */
+	record QueuedChange(SerializedVariable variable, long sequence) {}
+
+	/**
+	 * The amount of variable changes that have been queued,
+	 * but have neither been saved nor been discarded by {@link #clearChangesQueue()} yet.
+	 */
+	private final AtomicInteger unsavedChanges = new AtomicInteger();
+
+	/**
+	 * The amount of variable changes that have been queued, used as the {@link QueuedChange#sequence()} of the next change.
+	 */
+	private final AtomicLong queuedChanges = new AtomicLong();
+
+	/**
+	 * The {@link QueuedChange#sequence() sequence} before which changes have been discarded by {@link #clearChangesQueue()},
+	 * as they were made before the full save that cleared the queue.
+	 * This also covers changes that the {@link #writeThread} took from the queue before it was cleared.
+	 */
+	private volatile long discardedChanges;
 
 	/**
 	 * Whether this variable storage has been {@link #close() closed}.
@@ -95,20 +139,33 @@ public abstract class VariablesStorage implements Closeable {
 		databaseType = type;
 
 		writeThread = Skript.newThread(() -> {
+			List<QueuedChange> batch = new ArrayList<>();
+			List<SerializedVariable> changes = new ArrayList<>();
 			while (!closed) {
 				try {
-					// Take a variable from the queue and process it
-					SerializedVariable variable = changesQueue.take();
-					Value value = variable.value;
-
-					// Actually save the variable
-					if (value != null)
-						save(variable.name, value.type, value.data);
-					else
-						save(variable.name, null, null);
+					// Wait for a variable change, then collect as many others as possible into the same batch
+					batch.add(changesQueue.take());
+					collectBatch(batch);
 				} catch (InterruptedException ignored) {
 					// Ignored as the `closed` field will indicate whether the thread actually needs to stop
 				}
+
+				if (batch.isEmpty())
+					continue;
+
+				synchronized (connectionLock) {
+					// Changes made before the queue was last cleared were already discarded
+					long discardedChanges = this.discardedChanges;
+					for (QueuedChange change : batch) {
+						if (change.sequence() >= discardedChanges)
+							changes.add(change.variable());
+					}
+					if (!changes.isEmpty())
+						saveBatch(coalesce(changes));
+				}
+				unsavedChanges.addAndGet(-batch.size());
+				batch.clear();
+				changes.clear();
 			}
 		}, "Skript variable save thread for database '" + type + "'");
 	}
@@ -313,8 +370,8 @@ public abstract class VariablesStorage implements Closeable {
 	protected abstract File getFile(String fileName);
 
 	/**
-	 * Must be locked after {@link Variables#getReadLock()}
-	 * (if that lock is used at all).
+	 * A lock for the connection to the database,
+	 * which must be held while (dis)connecting or writing to it.
 	 */
 	protected final Object connectionLock = new Object();
 
@@ -391,6 +448,99 @@ public abstract class VariablesStorage implements Closeable {
 		return variableNamePattern == null || variableNamePattern.matcher(var).matches();
 	}
 
+	/**
+	 * An action performed for each variable stored in a storage.
+	 *
+	 * @see #forEachStoredVariable(StoredVariableAction)
+	 */
+	@FunctionalInterface
+	interface StoredVariableAction {
+
+		/**
+		 * @param name the full name of the variable.
+		 * @param value the (unserialized) value of the variable.
+		 * @throws IOException if the action failed in a way that should abort the iteration.
+		 */
+		void accept(String name, Object value) throws IOException;
+
+	}
+
+	/**
+	 * Performs the given action for each global variable that is saved in this storage,
+	 * i.e. each non-ephemeral variable that is {@link #accept(String) accepted} by this storage
+	 * and not by any storage before it.
+	 * <p>
+	 * Variables are visited in the order of the variable tree, without locking it (see {@link Variables#getVariables()}).
+	 * Exceptions other than {@link IOException}s are reported and skip only the affected variable.
+	 *
+	 * @param action the action to perform.
+	 * @throws IOException if the action threw one.
+	 */
+	final void forEachStoredVariable(StoredVariableAction action) throws IOException {
+		forEachStoredVariable(Variables.getVariables(), action);
+	}
+
+	/**
+	 * Performs the given action for each global variable in the given branch of the variable tree
+	 * that is saved in this storage, see {@link #forEachStoredVariable(StoredVariableAction)}.
+	 *
+	 * @param map a map of top-level variable names to their nodes in the variable tree.
+	 * @param action the action to perform.
+	 * @throws IOException if the action threw one.
+	 */
+	final void forEachStoredVariable(Map<String, Object> map, StoredVariableAction action) throws IOException {
+		forEachStoredVariable("", map, action);
+	}
+
+	/**
+	 * @param parent the parent's name with {@link Variable#SEPARATOR} at the end.
+	 * @param map the branch of the variable tree to visit.
+	 */
+	@SuppressWarnings("unchecked")
+	private void forEachStoredVariable(String parent, Map<String, Object> map, StoredVariableAction action) throws IOException {
+		if (parent.startsWith(Variable.EPHEMERAL_VARIABLE_TOKEN))
+			// Skip ephemeral variables
+			return;
+
+		// Iterate over all children
+		for (Map.Entry<String, Object> childEntry : map.entrySet()) {
+			Object childNode = childEntry.getValue();
+			String childKey = childEntry.getKey();
+
+			if (childNode == null)
+				continue; // Leaf node
+
+			if (childNode instanceof Map) {
+				// Branch found, recurse
+				forEachStoredVariable(parent + childKey + Variable.SEPARATOR, (Map<String, Object>) childNode, action);
+				continue;
+			}
+
+			// Remove variable separator if needed
+			String name = childKey == null ? parent.substring(0, parent.length() - Variable.SEPARATOR.length()) : parent + childKey;
+
+			if (name.startsWith(Variable.EPHEMERAL_VARIABLE_TOKEN))
+				// Skip ephemeral variables
+				continue;
+
+			try {
+				// Loop over storages to make sure this variable is ours to store
+				for (VariablesStorage storage : Variables.STORAGES) {
+					if (storage.accept(name)) {
+						if (storage == this)
+							action.accept(name, childNode);
+						break;
+					}
+				}
+			} catch (IOException e) {
+				throw e;
+			} catch (Exception e) {
+				//noinspection ThrowableNotThrown
+				Skript.exception(e, "Error saving variable named " + name);
+			}
+		}
+	}
+
 	/**
 	 * Returns the name pattern accepted by this variable storage
 	 * @return the name pattern, or null if accepting all
@@ -427,6 +577,8 @@ public abstract class VariablesStorage implements Closeable {
 	 * @param var the serialized variable.
 	 */
 	final void save(SerializedVariable var) {
+		variableQueued(var.name);
+		unsavedChanges.incrementAndGet();
 		if (changesQueue.size() > FIRST_WARNING && lastWarning < System.currentTimeMillis() - WARNING_INTERVAL * 1000) {
 			// Too many variables queued up to save, warn the server
 			Skript.warning("Cannot write variables to the database '" + databaseName + "' at sufficient speed; " +
@@ -436,7 +588,8 @@ public abstract class VariablesStorage implements Closeable {
 			lastWarning = System.currentTimeMillis();
 		}
 
-		if (!changesQueue.offer(var)) {
+		QueuedChange change = new QueuedChange(var, queuedChanges.getAndIncrement());
+		if (!changesQueue.offer(change)) {
 			// Variable changes queue filled up
 
 			if (lastError < System.currentTimeMillis() - ERROR_INTERVAL * 1000) {
@@ -451,13 +604,57 @@ public abstract class VariablesStorage implements Closeable {
 			while (true) {
 				try {
 					// REMIND add repetitive error and/or stop saving variables altogether?
-					changesQueue.put(var);
+					changesQueue.put(change);
 					break;
 				} catch (InterruptedException ignored) {}
 			}
 		}
 	}
 
+	/**
+	 * Moves variable changes from the {@link #changesQueue} into the given batch,
+	 * until either the batch is full or {@link #MAX_BATCH_DELAY} has passed.
+	 *
+	 * @param batch the batch, already containing its first change.
+	 * @throws InterruptedException if the thread was interrupted while waiting for more changes.
+	 */
+	private void collectBatch(List<QueuedChange> batch) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(MAX_BATCH_DELAY);
+		while (batch.size() < MAX_BATCH_SIZE) {
+			if (changesQueue.drainTo(batch, MAX_BATCH_SIZE - batch.size()) > 0)
+				continue;
+
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0)
+				return;
+			QueuedChange change = changesQueue.poll(remaining, TimeUnit.NANOSECONDS);
+			if (change == null)
+				return;
+			batch.add(change);
+		}
+	}
+
+	/**
+	 * Removes all but the last change of each variable from the given changes,
+	 * as only the last change of a variable determines its saved value.
+	 *
+	 * @param changes the variable changes, in the order they were made.
+	 * @return the remaining changes, in the order of the last change of each variable.
+	 */
+	static List<SerializedVariable> coalesce(List<SerializedVariable> changes) {
+		if (changes.size() <= 1)
+			return changes;
+		Map<String, SerializedVariable> lastChanges = new LinkedHashMap<>();
+		for (SerializedVariable change : changes) {
+			// removing first moves the variable to the end of the iteration order
+			lastChanges.remove(change.name);
+			lastChanges.put(change.name, change);
+		}
+		if (lastChanges.size() == changes.size())
+			return changes;
+		return new ArrayList<>(lastChanges.values());
+	}
+
 	/**
 	 * Called when Skript gets disabled.
 	 * <p>
@@ -471,7 +668,7 @@ public abstract class VariablesStorage implements Closeable {
 	@Override
 	public void close() {
 		// Wait for all variable changes to be processed
-		while (changesQueue.size() > 0) {
+		while (unsavedChanges.get() > 0) {
 			try {
 				Thread.sleep(10);
 			} catch (InterruptedException ignored) {}
@@ -483,15 +680,30 @@ public abstract class VariablesStorage implements Closeable {
 	}
 
 	/**
-	 * Clears the {@link #changesQueue queue} of unsaved variables.
+	 * Clears the {@link #changesQueue queue} of unsaved variables,
+	 * including the batch currently waiting to be saved (if any).
 	 * <p>
 	 * Only used if all variables are saved immediately
-	 * after calling this method.
+	 * after calling this method. Must be called while holding {@link #connectionLock}.
 	 */
 	protected void clearChangesQueue() {
-		changesQueue.clear();
+		// Every change with a lower sequence was serialized before this point, so the full save includes it
+		discardedChanges = queuedChanges.get();
+		List<QueuedChange> cleared = new ArrayList<>();
+		changesQueue.drainTo(cleared);
+		unsavedChanges.addAndGet(-cleared.size());
 	}
 
+	/**
+	 * Called when a change to the given variable is about to be queued for saving.
+	 * <p>
+	 * May be called from a different thread than Bukkit's main thread.
+	 * The default implementation does nothing.
+	 *
+	 * @param name the name of the changed variable.
+	 */
+	protected void variableQueued(String name) {}
+
 	/**
 	 * Saves a variable.
 	 * <p>
@@ -509,4 +721,29 @@ public abstract class VariablesStorage implements Closeable {
 	 */
 	protected abstract boolean save(String name, @Nullable String type, @Nullable byte[] value);
 
+	/**
+	 * Saves a batch of variable changes.
+	 * <p>
+	 * This is called from the {@link #writeThread} while holding {@link #connectionLock}.
+	 * The batch contains at most one change per variable.
+	 * <p>
+	 * The default implementation calls {@link #save(String, String, byte[])} for each change.
+	 * Storages should override this if they can save multiple changes more efficiently at once.
+	 *
+	 * @param batch the variable changes to save, in the order they were made.
+	 * @return Whether all variables were saved.
+	 */
+	protected boolean saveBatch(List<SerializedVariable> batch) {
+		boolean success = true;
+		for (SerializedVariable variable : batch) {
+			Value value = variable.value;
+			if (value != null) {
+				success &= save(variable.name, value.type, value.data);
+			} else {
+				success &= save(variable.name, null, null);
+			}
+		}
+		return success;
+	}
+
 }
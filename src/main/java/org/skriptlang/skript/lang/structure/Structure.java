@@ -151,6 +151,19 @@ public abstract class Structure implements SyntaxElement, Debuggable {
 		return true;
 	}
 
+	/**
+	 * Whether the {@link #load()} phase of this Structure may run at the same time as the load phase
+	 *  of Structures with the same priority in other scripts, when parallel loading is enabled.
+	 * The {@link #preLoad()} and {@link #postLoad()} phases are never run in parallel.
+	 * A Structure should only return true if its load phase does not modify any state shared with other scripts,
+	 *  other than through the {@link ch.njol.skript.lang.parser.ParserInstance} of the current thread.
+	 * @return Whether this Structure can be loaded in parallel. By default, this is false.
+	 * @see ch.njol.skript.ScriptLoader#isParallel()
+	 */
+	public boolean canLoadInParallel() {
+		return false;
+	}
+
 	/**
 	 * Called when this structure is unloaded.
 	 */
@@ -8,12 +8,18 @@ import com.google.common.reflect.ClassPath.ResourceInfo;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.Nullable;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.jar.JarEntry;
@@ -51,6 +57,24 @@ public class ClassLoader {
 				.loadClasses(source, jarFile);
 	}
 
+	/**
+	 * The path of the index of the classes of a jar, which lists the path of each class on its own line,
+	 * e.g. {@code ch/njol/skript/Skript.class}.
+	 * If a jar contains this index, the classes to load are found using the index instead of by enumerating the entries of the jar.
+	 * Skript's build generates this index, and addons may include one in their jar as well.
+	 */
+	public static final String CLASS_INDEX = "META-INF/skript/class-index.txt";
+
+	/**
+	 * The class paths of each jar, as classes are usually loaded from the same jar multiple times during startup.
+	 */
+	private static final Map<JarKey, SoftReference<Collection<String>>> JAR_CLASS_PATHS = new ConcurrentHashMap<>();
+
+	/**
+	 * Identifies a version of a jar file, so a jar that was replaced is read again.
+	 */
+	private record JarKey(String path, long lastModified, long length) { }
+
 	private final String basePackage;
 	private final Collection<String> subPackages;
 	private final @Nullable Predicate<String> filter;
@@ -91,13 +115,21 @@ public class ClassLoader {
 	 * @see #loadClasses(Class, JarFile)                  
 	 */
 	public void loadClasses(Class<?> source, File jarFile) {
-		try (JarFile jar = new JarFile(jarFile)) {
-			loadClasses(source, jar);
-		} catch (IOException e) {
-			// TODO better logging
-			Skript.warning("Failed to access jar file: " + e);
-			loadClasses(source); // try to load using just the source class
+		JarKey key = new JarKey(jarFile.getAbsolutePath(), jarFile.lastModified(), jarFile.length());
+		SoftReference<Collection<String>> cached = JAR_CLASS_PATHS.get(key);
+		Collection<String> classPaths = cached != null ? cached.get() : null;
+		if (classPaths == null) {
+			try (JarFile jar = new JarFile(jarFile)) {
+				classPaths = getClassPaths(jar);
+			} catch (IOException e) {
+				// TODO better logging
+				Skript.warning("Failed to access jar file: " + e);
+				loadClasses(source); // try to load using just the source class
+				return;
+			}
+			JAR_CLASS_PATHS.put(key, new SoftReference<>(classPaths));
 		}
+		loadClasses(source, classPaths);
 	}
 
 	/**
@@ -111,9 +143,7 @@ public class ClassLoader {
 		final Collection<String> classPaths;
 		try {
 			if (jar != null) { // load from jar if available
-				classPaths = jar.stream()
-						.map(JarEntry::getName)
-						.collect(Collectors.toSet());
+				classPaths = getClassPaths(jar);
 			} else {
 				classPaths = ClassPath.from(source.getClassLoader()).getResources().stream()
 					.map(ResourceInfo::getResourceName)
@@ -122,7 +152,31 @@ public class ClassLoader {
 		} catch (IOException e) {
 			throw new RuntimeException("Failed to load classes: " + e);
 		}
+		loadClasses(source, classPaths);
+	}
+
+	/**
+	 * Gets the paths of the entries of a jar, or only the paths of its classes if the jar contains a {@link #CLASS_INDEX}.
+	 */
+	private static Collection<String> getClassPaths(JarFile jar) throws IOException {
+		JarEntry index = jar.getJarEntry(CLASS_INDEX);
+		if (index == null)
+			return jar.stream()
+					.map(JarEntry::getName)
+					.collect(Collectors.toSet());
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(jar.getInputStream(index), StandardCharsets.UTF_8))) {
+			return reader.lines()
+					.filter(line -> !line.isEmpty())
+					.collect(Collectors.toList());
+		}
+	}
 
+	/**
+	 * Loads the classes meeting the criteria set by this loader from the given class paths.
+	 * @param source A class within the resource classes should be loaded from.
+	 * @param classPaths The paths of the resources to search for classes, e.g. {@code ch/njol/skript/Skript.class}.
+	 */
+	private void loadClasses(Class<?> source, Collection<String> classPaths) {
 		// Used for tracking valid classes if a non-recursive search is done
 		// Depth is the measure of how "deep" from the head package of 'basePackage' a class is
 		final int expectedDepth = !this.deep ? StringUtils.count(this.basePackage, '/') : 0;
@@ -0,0 +1,52 @@
+package ch.njol.skript.expressions.arithmetic;
+
+import org.junit.Test;
+import org.skriptlang.skript.lang.arithmetic.Operator;
+
+import java.util.function.BinaryOperator;
+
+import static org.junit.Assert.assertEquals;
+
+public class NumberArithmeticTest {
+
+	private static final Number[] NUMBERS = {
+		0L, 1L, -1L, 2, -3, 7L, (byte) 5, (short) -12,
+		Integer.MAX_VALUE, Integer.MIN_VALUE, 3_037_000_500L, -3_037_000_500L,
+		Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE - 1, Long.MIN_VALUE + 1,
+		0.0, -0.0, 0.5, -2.25, 1.5f, 1e300, Double.NaN, Double.POSITIVE_INFINITY
+	};
+
+	private static void assertSameResults(Operator operator, BinaryOperator<Number> operation) {
+		NumberArithmetic.Value value = new NumberArithmetic.Value();
+		for (Number left : NUMBERS) {
+			for (Number right : NUMBERS) {
+				value.set(left);
+				boolean leftInteger = value.integer;
+				long leftLong = value.longValue;
+				double leftDouble = value.doubleValue;
+				value.set(right);
+				NumberArithmetic.calculate(operator, leftInteger, leftLong, leftDouble, value, value);
+				assertEquals(left + " " + operator + " " + right, operation.apply(left, right), value.box());
+			}
+		}
+	}
+
+	@Test
+	public void testPrimitiveOperations() {
+		assertSameResults(Operator.ADDITION, NumberArithmetic::add);
+		assertSameResults(Operator.SUBTRACTION, NumberArithmetic::subtract);
+		assertSameResults(Operator.MULTIPLICATION, NumberArithmetic::multiply);
+		assertSameResults(Operator.DIVISION, NumberArithmetic::divide);
+		assertSameResults(Operator.EXPONENTIATION, NumberArithmetic::exponentiate);
+	}
+
+	@Test
+	public void testOverflow() {
+		assertEquals(Long.MAX_VALUE, NumberArithmetic.add(Long.MAX_VALUE - 1, 1L));
+		assertEquals((double) Long.MAX_VALUE + 1, NumberArithmetic.add(Long.MAX_VALUE, 1L));
+		assertEquals((double) Long.MIN_VALUE * 2, NumberArithmetic.multiply(Long.MIN_VALUE, 2L));
+		assertEquals(-(double) Long.MIN_VALUE, NumberArithmetic.multiply(Long.MIN_VALUE, -1L));
+		assertEquals(6L, NumberArithmetic.multiply(2, 3L));
+	}
+
+}
@@ -0,0 +1,174 @@
+package ch.njol.skript.util;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TimingWheelTest {
+
+	private static final long SPAN = 1L << (TimingWheel.SLOT_BITS * TimingWheel.LEVELS);
+
+	private static final class Task {
+
+		private final String name;
+		private long due;
+		private boolean cancelled;
+		private long ranAt = -1;
+
+		private Task(String name, long due) {
+			this.name = name;
+			this.due = due;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+
+	}
+
+	private static TimingWheel<Task> newWheel() {
+		return new TimingWheel<>(task -> task.due, task -> task.cancelled);
+	}
+
+	/**
+	 * Advances the wheel to the given tick, marking when each task is returned.
+	 *
+	 * @return the tasks returned at the given tick
+	 */
+	private static List<Task> advanceTo(TimingWheel<Task> wheel, long tick) {
+		List<Task> last = new ArrayList<>();
+		while (wheel.getCurrentTick() < tick) {
+			List<Task> due = wheel.advance();
+			last.clear();
+			if (due == null)
+				continue;
+			for (Task task : due) {
+				assertEquals(task + " ran twice", -1, task.ranAt);
+				task.ranAt = wheel.getCurrentTick();
+				last.add(task);
+			}
+		}
+		return last;
+	}
+
+	@Test
+	public void testLevelBoundaries() {
+		TimingWheel<Task> wheel = newWheel();
+		long[] dues = {1, 255, 256, 257, 511, 512, 65535, 65536, 65537, 65536 + 256, SPAN - 1, SPAN, SPAN + 1, 2 * SPAN + 5};
+		List<Task> tasks = new ArrayList<>();
+		for (long due : dues) {
+			Task task = new Task("due " + due, due);
+			tasks.add(task);
+			wheel.insert(task);
+		}
+		advanceTo(wheel, 2 * SPAN + 5);
+		for (Task task : tasks)
+			assertEquals(task.toString(), task.due, task.ranAt);
+	}
+
+	@Test
+	public void testRandomDelays() {
+		TimingWheel<Task> wheel = newWheel();
+		Random random = new Random(0);
+		List<Task> tasks = new ArrayList<>();
+		// insert tasks from different ticks, with delays at every level and beyond
+		long[] maxDelays = {256, 65536, SPAN, 2 * SPAN};
+		for (int step = 0; step < 50; step++) {
+			for (int i = 0; i < 20; i++) {
+				long delay = 1 + (long) (random.nextDouble() * maxDelays[random.nextInt(maxDelays.length)]);
+				Task task = new Task("task " + tasks.size(), wheel.getCurrentTick() + delay);
+				tasks.add(task);
+				wheel.insert(task);
+			}
+			advanceTo(wheel, wheel.getCurrentTick() + 1 + random.nextInt(70_000));
+		}
+		long last = 0;
+		for (Task task : tasks)
+			last = Math.max(last, task.due);
+		advanceTo(wheel, last);
+		for (Task task : tasks)
+			assertEquals(task.toString(), task.due, task.ranAt);
+	}
+
+	@Test
+	public void testSameTickOrder() {
+		TimingWheel<Task> wheel = newWheel();
+		Task first = new Task("first", 300);
+		Task second = new Task("second", 300);
+		Task third = new Task("third", 300);
+		wheel.insert(first); // level 1
+		advanceTo(wheel, 100);
+		wheel.insert(second); // level 1, same bucket as the first task
+		advanceTo(wheel, 260);
+		wheel.insert(third); // level 0, after the first two were moved there
+		assertEquals(Arrays.asList(first, second, third), advanceTo(wheel, 300));
+
+		Task parked = new Task("parked", SPAN + 10);
+		wheel.insert(parked);
+		advanceTo(wheel, SPAN - 1000);
+		Task later = new Task("later", SPAN + 10);
+		wheel.insert(later);
+		assertEquals(Arrays.asList(parked, later), advanceTo(wheel, SPAN + 10));
+	}
+
+	@Test
+	public void testCancel() {
+		TimingWheel<Task> wheel = newWheel();
+		Task near = new Task("near", 10);
+		Task far = new Task("far", 1000);
+		Task parked = new Task("parked", SPAN + 1);
+		wheel.insert(near);
+		wheel.insert(far);
+		wheel.insert(parked);
+		near.cancelled = true;
+		far.cancelled = true;
+		parked.cancelled = true;
+
+		// cancelled tasks of the lowest level are returned, the caller skips them
+		assertEquals(List.of(near), advanceTo(wheel, 10));
+		// cancelled tasks of higher levels are dropped when their bucket is reached
+		advanceTo(wheel, SPAN + 1);
+		assertEquals(-1, far.ranAt);
+		assertEquals(-1, parked.ranAt);
+	}
+
+	@Test
+	public void testRepeatingReinsert() {
+		TimingWheel<Task> wheel = newWheel();
+		long period = 100;
+		Task task = new Task("repeating", 50);
+		wheel.insert(task);
+		List<Long> runs = new ArrayList<>();
+		while (wheel.getCurrentTick() < 70_000) {
+			List<Task> due = wheel.advance();
+			if (due == null)
+				continue;
+			assertEquals(List.of(task), due);
+			runs.add(wheel.getCurrentTick());
+			task.due += period;
+			wheel.insert(task);
+		}
+		assertEquals(700, runs.size());
+		for (int i = 0; i < runs.size(); i++)
+			assertEquals(50 + i * period, (long) runs.get(i));
+	}
+
+	@Test
+	public void testClear() {
+		TimingWheel<Task> wheel = newWheel();
+		wheel.insert(new Task("near", 1));
+		wheel.insert(new Task("far", 1000));
+		wheel.clear();
+		assertNull(wheel.advance());
+		assertTrue(advanceTo(wheel, 2000).isEmpty());
+	}
+
+}
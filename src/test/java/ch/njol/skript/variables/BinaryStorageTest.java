@@ -0,0 +1,93 @@
+package ch.njol.skript.variables;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BinaryStorageTest {
+
+	private static byte[] file(byte[]... payloads) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		BinaryStorage.writeHeader(out);
+		for (byte[] payload : payloads)
+			BinaryStorage.writeRecord(out, payload);
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	private static long read(byte[] file, Map<String, SerializedVariable.Value> records) throws IOException {
+		return BinaryStorage.readRecords(new ByteArrayInputStream(file), file.length, records);
+	}
+
+	@Test
+	public void testLatestRecordWins() throws IOException {
+		byte[] file = file(
+			BinaryStorage.encodePayload("a", "long", new byte[] {1}),
+			BinaryStorage.encodePayload("b", "long", new byte[] {2}),
+			BinaryStorage.encodePayload("a", "long", new byte[] {3}),
+			BinaryStorage.encodePayload("b", null, null)
+		);
+		Map<String, SerializedVariable.Value> records = new LinkedHashMap<>();
+		assertEquals(file.length, read(file, records));
+		assertEquals(2, records.size());
+		assertArrayEquals(new byte[] {3}, records.get("a").data);
+		assertTrue(records.containsKey("b"));
+		assertNull(records.get("b"));
+	}
+
+	@Test
+	public void testIncompleteTail() throws IOException {
+		byte[] complete = file(BinaryStorage.encodePayload("a", "long", new byte[] {1}));
+		byte[] file = file(
+			BinaryStorage.encodePayload("a", "long", new byte[] {1}),
+			BinaryStorage.encodePayload("a", "long", new byte[] {2, 3, 4})
+		);
+		for (int length = complete.length; length < file.length; length++) {
+			Map<String, SerializedVariable.Value> records = new LinkedHashMap<>();
+			assertEquals(complete.length, read(Arrays.copyOf(file, length), records));
+			assertArrayEquals(new byte[] {1}, records.get("a").data);
+		}
+	}
+
+	@Test
+	public void testCorruptedTail() throws IOException {
+		byte[] complete = file(BinaryStorage.encodePayload("a", "long", new byte[] {1}));
+		byte[] file = file(
+			BinaryStorage.encodePayload("a", "long", new byte[] {1}),
+			BinaryStorage.encodePayload("a", "long", new byte[] {2})
+		);
+		file[file.length - 1] ^= 1;
+		Map<String, SerializedVariable.Value> records = new LinkedHashMap<>();
+		assertEquals(complete.length, read(file, records));
+		assertArrayEquals(new byte[] {1}, records.get("a").data);
+	}
+
+	@Test(expected = IOException.class)
+	public void testInvalidHeader() throws IOException {
+		byte[] file = "a, long, 01".getBytes();
+		read(file, new LinkedHashMap<>());
+	}
+
+	@Test(expected = IOException.class)
+	public void testNameTooLong() throws IOException {
+		BinaryStorage.encodePayload("a".repeat(65536), "long", new byte[] {1});
+	}
+
+	@Test(expected = IOException.class)
+	public void testValueTooLarge() throws IOException {
+		BinaryStorage.encodePayload("a", "long", new byte[BinaryStorage.MAX_RECORD_SIZE + 1]);
+	}
+
+}
@@ -0,0 +1,68 @@
+package ch.njol.skript.variables;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentVariablesNodeTest {
+
+	@Test
+	public void testNullKey() {
+		ConcurrentVariablesNode node = new ConcurrentVariablesNode();
+		assertTrue(node.isEmpty());
+		assertNull(node.put(null, "self"));
+		assertEquals("self", node.get(null));
+		assertTrue(node.containsKey(null));
+		assertEquals(1, node.size());
+		assertEquals("self", node.remove(null));
+		assertFalse(node.containsKey(null));
+		assertTrue(node.isEmpty());
+	}
+
+	@Test
+	public void testOrder() {
+		ConcurrentVariablesNode node = new ConcurrentVariablesNode();
+		node.put("10", 10);
+		node.put("b", "b");
+		node.put("2", 2);
+		node.put(null, "self");
+		node.put("a", "a");
+		assertEquals(5, node.size());
+
+		List<String> keys = new ArrayList<>();
+		for (Entry<String, Object> entry : node.entrySet())
+			keys.add(entry.getKey());
+		assertEquals(Arrays.asList(null, "2", "10", "a", "b"), keys);
+	}
+
+	@Test
+	public void testModificationDuringIteration() {
+		ConcurrentVariablesNode node = new ConcurrentVariablesNode();
+		for (int i = 1; i <= 100; i++)
+			node.put(String.valueOf(i), i);
+
+		int count = 0;
+		Iterator<Entry<String, Object>> iterator = node.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Entry<String, Object> entry = iterator.next();
+			if (entry.getValue().equals(1)) {
+				// removing entries that have not been reached yet must not throw
+				for (int i = 51; i <= 100; i++)
+					node.remove(String.valueOf(i));
+			}
+			count++;
+		}
+		assertEquals(50, count);
+		assertEquals(50, node.size());
+	}
+
+}
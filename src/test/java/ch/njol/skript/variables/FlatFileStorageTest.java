@@ -1,8 +1,16 @@
 package ch.njol.skript.variables;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import org.junit.Test;
 
@@ -44,4 +52,105 @@ public class FlatFileStorageTest {
 		}
 	}
 
+	@Test
+	public void testChunks() throws IOException {
+		StringBuilder content = new StringBuilder("# === Skript's variable storage ===\n\n");
+		for (int i = 0; i < 1000; i++) {
+			if (i % 100 == 0) {
+				content.append("invalid line ").append(i).append("\n");
+			} else {
+				content.append("variable::").append(i).append(", null, \"\"\r\n");
+			}
+		}
+		content.append("last, null, ");
+		int lines = 2 + 1000 + 1;
+
+		Path path = Files.createTempFile("variables", ".csv");
+		try {
+			Files.write(path, content.toString().getBytes(FlatFileStorage.FILE_CHARSET));
+			byte[] bytes = Files.readAllBytes(path);
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+				for (int chunkCount : new int[] {1, 7, 64, 100_000}) {
+					long[] bounds = FlatFileStorage.splitIntoChunks(channel, chunkCount);
+					assertEquals(0, bounds[0]);
+					assertEquals(bytes.length, bounds[bounds.length - 1]);
+
+					int lineNum = 0;
+					List<Integer> invalidLines = new ArrayList<>();
+					for (int i = 0; i < bounds.length - 1; i++) {
+						assertTrue(bounds[i] < bounds[i + 1]);
+						if (i != 0)
+							assertEquals("chunk at " + bounds[i] + " should start on a new line", '\n', bytes[(int) bounds[i] - 1]);
+
+						FlatFileStorage.LoadedChunk chunk = FlatFileStorage.loadChunk(channel, bounds[i], bounds[i + 1]);
+						assertTrue(chunk.variables.isEmpty());
+						for (FlatFileStorage.LoadedChunk.InvalidLine line : chunk.invalidLines)
+							invalidLines.add(lineNum + line.lineNum);
+						lineNum += chunk.lineCount;
+					}
+
+					assertEquals(lines, lineNum);
+					assertEquals(10, invalidLines.size());
+					for (int i = 0; i < invalidLines.size(); i++)
+						assertEquals(3 + 100 * i, (int) invalidLines.get(i));
+				}
+			}
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	public void testSegmentedWriter() throws IOException {
+		Path first = Files.createTempFile("variables", ".csv");
+		Path second = Files.createTempFile("variables", ".csv");
+		try {
+			FlatFileStorage.Segment a, b, c;
+			try (FileChannel out = FileChannel.open(first, StandardOpenOption.WRITE)) {
+				FlatFileStorage.SegmentedWriter writer = new FlatFileStorage.SegmentedWriter(out, null);
+				writer.printWriter.println("# header");
+				long start = writer.getPosition();
+				writer.printWriter.println("a, string, 00");
+				a = new FlatFileStorage.Segment(start, writer.getPosition() - start);
+				start = writer.getPosition();
+				writer.printWriter.println("b::1, string, \u00e9");
+				writer.printWriter.println("b::2, string, 02");
+				b = new FlatFileStorage.Segment(start, writer.getPosition() - start);
+				start = writer.getPosition();
+				writer.printWriter.println("c, string, 03");
+				c = new FlatFileStorage.Segment(start, writer.getPosition() - start);
+				writer.printWriter.println("appended, string, 04");
+				writer.finish();
+			}
+			assertEquals(Files.size(first), c.offset + c.length + "appended, string, 04".length() + System.lineSeparator().length());
+
+			try (FileChannel previous = FileChannel.open(first, StandardOpenOption.READ);
+				 FileChannel out = FileChannel.open(second, StandardOpenOption.WRITE)) {
+				FlatFileStorage.SegmentedWriter writer = new FlatFileStorage.SegmentedWriter(out, previous);
+				writer.printWriter.println("# header");
+				writer.copy(a);
+				writer.copy(b);
+				writer.printWriter.println("c, string, 05");
+				writer.copy(b);
+				assertEquals(Files.size(first) - "appended, string, 04".length() - System.lineSeparator().length() + b.length, writer.getPosition());
+				writer.finish();
+			}
+
+			String n = System.lineSeparator();
+			assertEquals("# header" + n + "a, string, 00" + n + "b::1, string, \u00e9" + n + "b::2, string, 02" + n +
+					"c, string, 05" + n + "b::1, string, \u00e9" + n + "b::2, string, 02" + n,
+				new String(Files.readAllBytes(second), FlatFileStorage.FILE_CHARSET));
+		} finally {
+			Files.delete(first);
+			Files.delete(second);
+		}
+	}
+
+	@Test
+	public void testSegmentName() {
+		assertEquals("a", FlatFileStorage.getSegmentName("a"));
+		assertEquals("a", FlatFileStorage.getSegmentName("a::b::c"));
+		assertEquals("", FlatFileStorage.getSegmentName("::b"));
+	}
+
 }
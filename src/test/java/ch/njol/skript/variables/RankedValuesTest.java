@@ -0,0 +1,99 @@
+package ch.njol.skript.variables;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class RankedValuesTest {
+
+	@Test
+	public void testRanks() {
+		RankedValues ranking = new RankedValues();
+		ranking.update("first", 17);
+		ranking.update("third", 30.5);
+		ranking.update("second", 25L);
+		ranking.update("fourth", 42);
+		ranking.update("text", "not a number");
+
+		assertEquals(4, ranking.size());
+		assertEquals(1, ranking.getRank("first", false));
+		assertEquals(4, ranking.getRank("first", true));
+		assertEquals(1, ranking.getRank("fourth", true));
+		assertEquals(0, ranking.getRank("text", false));
+		assertEquals(0, ranking.getRank("missing", false));
+		assertEquals(Arrays.asList("fourth", "third"), ranking.getIndices(1, 2, true));
+		assertEquals(Arrays.asList("second", "third", "fourth"), ranking.getIndices(2, 10, false));
+		assertEquals(Collections.emptyList(), ranking.getIndices(5, 10, false));
+
+		ranking.update("first", 50);
+		assertEquals(1, ranking.getRank("first", true));
+		ranking.update("first", null);
+		assertEquals(0, ranking.getRank("first", true));
+		assertEquals(3, ranking.size());
+	}
+
+	@Test
+	public void testEqualValues() {
+		RankedValues ranking = new RankedValues();
+		ranking.update("b", 1);
+		ranking.update("10", 1);
+		ranking.update("2", 1);
+		assertEquals(Arrays.asList("2", "10", "b"), ranking.getIndices(1, 3, false));
+	}
+
+	@Test
+	public void testRandomChanges() {
+		Random random = new Random(42);
+		RankedValues ranking = new RankedValues();
+		Map<String, Integer> values = new HashMap<>();
+		for (int i = 0; i < 5000; i++) {
+			String index = String.valueOf(random.nextInt(500));
+			if (random.nextInt(4) == 0) {
+				values.remove(index);
+				ranking.update(index, null);
+			} else {
+				int value = random.nextInt(100);
+				values.put(index, value);
+				ranking.update(index, value);
+			}
+		}
+
+		List<String> sorted = new ArrayList<>(values.keySet());
+		sorted.sort((a, b) -> {
+			int relation = Integer.compare(values.get(a), values.get(b));
+			return relation != 0 ? relation : VariablesMap.VARIABLE_NAME_COMPARATOR.compare(a, b);
+		});
+		assertEquals(sorted, ranking.getIndices(1, sorted.size(), false));
+		for (int rank = 1; rank <= sorted.size(); rank++) {
+			assertEquals(rank, ranking.getRank(sorted.get(rank - 1), false));
+			assertEquals(sorted.size() - rank + 1, ranking.getRank(sorted.get(rank - 1), true));
+		}
+		assertEquals(sorted.subList(100, 150), ranking.getIndices(101, 150, false));
+	}
+
+	@Test
+	public void testNodeRanking() {
+		ConcurrentVariablesNode node = new ConcurrentVariablesNode();
+		node.put("a", 3);
+		node.put("b", 1);
+		assertEquals(1, ListRankings.getRank(node, "a", true));
+
+		// the ranking is kept up to date after it was created
+		node.put("c", 5);
+		node.put("b", 10);
+		node.remove("a");
+		node.put("d", new ConcurrentVariablesNode());
+		assertEquals(Arrays.asList("b", "c"), ListRankings.getIndices(node, 1, 10, true));
+		node.clear();
+		assertEquals(Collections.emptyList(), ListRankings.getIndices(node, 1, 10, true));
+	}
+
+}
@@ -0,0 +1,44 @@
+package ch.njol.skript.variables;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class VariablesMapTest {
+
+	@Test
+	public void testListValue() {
+		for (VariablesMap map : new VariablesMap[] {new VariablesMap(), VariablesMap.concurrent()}) {
+			// the variable is set before its list exists
+			map.setVariable("x", 1);
+			map.setVariable("x::a", 2);
+			assertEquals(1, getList(map, "x::*").get(null));
+			assertEquals(2, getList(map, "x::*").get("a"));
+
+			map.setVariable("x", 3);
+			assertEquals(3, getList(map, "x::*").get(null));
+
+			map.setVariable("x", null);
+			assertNull(getList(map, "x::*").get(null));
+			assertEquals(2, getList(map, "x::*").get("a"));
+
+			// the variable is set after its list exists
+			map.setVariable("y::a", 2);
+			map.setVariable("y", 1);
+			assertEquals(1, getList(map, "y::*").get(null));
+
+			map.setVariable("y::*", null);
+			assertEquals(1, map.getVariable("y"));
+			assertNull(map.getVariable("y::*"));
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static Map<String, Object> getList(VariablesMap map, String name) {
+		return (Map<String, Object>) map.getVariable(name);
+	}
+
+}
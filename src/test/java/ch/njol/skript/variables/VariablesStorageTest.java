@@ -0,0 +1,40 @@
+package ch.njol.skript.variables;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class VariablesStorageTest {
+
+	private static SerializedVariable change(String name, String data) {
+		return new SerializedVariable(name, new SerializedVariable.Value("string", data.getBytes()));
+	}
+
+	@Test
+	public void testCoalesce() {
+		SerializedVariable a1 = change("a", "1");
+		SerializedVariable b1 = change("b", "1");
+		SerializedVariable a2 = change("a", "2");
+		SerializedVariable c = new SerializedVariable("c", null);
+		SerializedVariable b2 = new SerializedVariable("b", null);
+
+		List<SerializedVariable> coalesced = VariablesStorage.coalesce(Arrays.asList(a1, b1, a2, c, b2));
+		assertEquals(3, coalesced.size());
+		assertSame(a2, coalesced.get(0));
+		assertSame(c, coalesced.get(1));
+		assertSame(b2, coalesced.get(2));
+		assertNull(coalesced.get(2).value);
+	}
+
+	@Test
+	public void testCoalesceUnique() {
+		List<SerializedVariable> changes = Arrays.asList(change("a", "1"), change("b", "1"), change("c", "1"));
+		assertSame(changes, VariablesStorage.coalesce(changes));
+	}
+
+}